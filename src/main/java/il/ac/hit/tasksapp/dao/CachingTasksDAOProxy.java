@@ -1,16 +1,28 @@
 package il.ac.hit.tasksapp.dao;
 
 import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.Task;
+import il.ac.hit.tasksapp.model.TaskField;
+import il.ac.hit.tasksapp.model.aggregate.AggregateQuery;
+import il.ac.hit.tasksapp.model.aggregate.AggregateRow;
+import il.ac.hit.tasksapp.model.aggregate.HashAggregator;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Proxy over an ITasksDAO that caches reads and invalidates on writes.
  * - getTasks(): caches the array and also fills a by-id map.
  * - getTask(id): uses the by-id cache and falls back to the real DAO.
- * - add/update/delete: delegate and invalidate caches.
+ * - countTasks()/getTasksPage()/aggregate(): answered from the cached array when present.
+ * - forEachTask() and the filtered count/page: always delegated, so exports and paged views
+ *   stream from the database cursor instead of the cached copy.
+ * - update: write-through (the cached row is replaced in place, so the next edit needs no query).
+ * - add/delete: delegate and invalidate caches.
  */
 public class CachingTasksDAOProxy implements ITasksDAO {
 
@@ -47,6 +59,51 @@ public class CachingTasksDAOProxy implements ITasksDAO {
         return t;
     }
 
+    /** From the cached array if present; otherwise delegated (pages are not cached here). */
+    @Override
+    public int countTasks() throws TasksDAOException {
+        ITask[] cached = tasksCache;
+        return cached != null ? cached.length : real.countTasks();
+    }
+
+    @Override
+    public ITask[] getTasksPage(int offset, int limit) throws TasksDAOException {
+        ITask[] cached = tasksCache;
+        if (cached == null) return real.getTasksPage(offset, limit);
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset/limit must be >= 0");
+        int from = Math.min(offset, cached.length);
+        return Arrays.copyOfRange(cached, from, (int) Math.min((long) from + limit, cached.length));
+    }
+
+    @Override
+    public int countTasks(TaskFilter filter) throws TasksDAOException { return real.countTasks(filter); }
+
+    @Override
+    public ITask[] getTasksPage(TaskFilter filter, int offset, int limit) throws TasksDAOException {
+        return real.getTasksPage(filter, offset, limit);
+    }
+
+    /** Drop the cached rows (e.g. a paged view that reads the database directly no longer needs them). */
+    public void clear() { invalidate(); }
+
+    /** The real DAO's cursor (Derby: filter in SQL), so callers never walk a copy of the table. */
+    @Override
+    public void forEachTask(TaskFilter filter, RowHandler handler) throws TasksDAOException {
+        real.forEachTask(filter, handler);
+    }
+
+    /** Hash-aggregates the cached array when present; otherwise the real DAO (Derby: GROUP BY). */
+    @Override
+    public List<AggregateRow> aggregate(AggregateQuery query) throws TasksDAOException {
+        ITask[] cached = tasksCache;
+        if (cached == null) return real.aggregate(query);
+        HashAggregator agg = new HashAggregator(query);
+        for (ITask t : cached) {
+            if (query.filter().test(t)) agg.accept(t);
+        }
+        return agg.result();
+    }
+
     /* -------- WRITES (invalidate) -------- */
 
     @Override
@@ -58,7 +115,13 @@ public class CachingTasksDAOProxy implements ITasksDAO {
     @Override
     public void updateTask(ITask task) throws TasksDAOException {
         real.updateTask(task);
-        invalidate();
+        writeThrough(task);
+    }
+
+    @Override
+    public void updateTaskFields(ITask task, Set<TaskField> changed) throws TasksDAOException {
+        real.updateTaskFields(task, changed);
+        writeThrough(task);
     }
 
     @Override
@@ -73,6 +136,53 @@ public class CachingTasksDAOProxy implements ITasksDAO {
         invalidate();
     }
 
+    @Override
+    public void addTasks(ITask[] tasks) throws TasksDAOException {
+        try {
+            real.addTasks(tasks);
+        } finally {
+            invalidate(); // a failed batch may still have written rows before the error
+        }
+    }
+
+    @Override
+    public void runInTransaction(Work work) throws TasksDAOException {
+        try {
+            real.runInTransaction(work);
+        } finally {
+            invalidate(); // rolled back or not, reads inside the unit may have cached its rows
+        }
+    }
+
+    /**
+     * Replace the cached copy of an updated row (callers may keep mutating their own object).
+     * The slot is overwritten in place, O(log n): readers only ever get copies of the array.
+     */
+    private void writeThrough(ITask task) {
+        ITask copy = new Task(task.getId(), task.getTitle(), task.getDescription(), task.getState());
+        ITask[] cached = tasksCache;
+        if (cached != null) {
+            int i = indexOf(cached, copy.getId());
+            if (i < 0) { invalidate(); return; } // not a row we know: let the next read sort it out
+            cached[i] = copy;
+            taskByIdCache.put(copy.getId(), copy);
+        } else {
+            taskByIdCache.replace(copy.getId(), copy); // only rows known to exist
+        }
+    }
+
+    /** The cached array is in id order (as getTasks() returns it). */
+    private static int indexOf(ITask[] tasks, int id) {
+        int lo = 0, hi = tasks.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = Integer.compare(tasks[mid].getId(), id);
+            if (c == 0) return mid;
+            if (c < 0) lo = mid + 1; else hi = mid - 1;
+        }
+        return -1;
+    }
+
     private void invalidate() {
         tasksCache = null;
         taskByIdCache.clear();
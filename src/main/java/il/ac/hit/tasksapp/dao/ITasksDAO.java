@@ -1,6 +1,16 @@
 package il.ac.hit.tasksapp.dao;
 
 import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.TaskField;
+import il.ac.hit.tasksapp.model.aggregate.AggregateQuery;
+import il.ac.hit.tasksapp.model.aggregate.AggregateRow;
+import il.ac.hit.tasksapp.model.aggregate.HashAggregator;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 
 /** DAO contract for tasks persistence. */
 public interface ITasksDAO {
@@ -10,4 +20,85 @@ public interface ITasksDAO {
     void updateTask(ITask task) throws TasksDAOException;
     void deleteTasks() throws TasksDAOException;
     void deleteTask(int id) throws TasksDAOException;
+
+    /**
+     * Update only the given columns of an existing task; {@code task} is the full row after the change.
+     * The default rewrites the whole row; Derby sets just those columns.
+     */
+    default void updateTaskFields(ITask task, Set<TaskField> changed) throws TasksDAOException { updateTask(task); }
+
+    /** Number of stored tasks. */
+    default int countTasks() throws TasksDAOException { return getTasks().length; }
+
+    /** Tasks [offset, offset + limit) in id order (fewer at the end). The default slices getTasks(); Derby pages in SQL. */
+    default ITask[] getTasksPage(int offset, int limit) throws TasksDAOException {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset/limit must be >= 0");
+        ITask[] all = getTasks();
+        int from = Math.min(offset, all.length);
+        return Arrays.copyOfRange(all, from, (int) Math.min((long) from + limit, all.length));
+    }
+
+    /** Number of tasks matching {@code filter}. The default counts the forEachTask stream; Derby counts in SQL. */
+    default int countTasks(TaskFilter filter) throws TasksDAOException {
+        int[] n = {0};
+        forEachTask(filter, t -> { n[0]++; return true; });
+        return n[0];
+    }
+
+    /**
+     * Matching tasks [offset, offset + limit) in id order. The default skips through the forEachTask
+     * stream (nothing but the page is kept); Derby pages in SQL when the whole filter translates.
+     */
+    default ITask[] getTasksPage(TaskFilter filter, int offset, int limit) throws TasksDAOException {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset/limit must be >= 0");
+        List<ITask> page = new ArrayList<>(Math.min(limit, 1_024));
+        int[] skip = {offset};
+        if (limit > 0) forEachTask(filter, t -> {
+            if (skip[0] > 0) { skip[0]--; return true; }
+            page.add(t);
+            return page.size() < limit;
+        });
+        return page.toArray(new ITask[0]);
+    }
+
+    /** Insert many tasks. The default adds them one by one; Derby sends JDBC batches in one transaction. */
+    default void addTasks(ITask[] tasks) throws TasksDAOException {
+        for (ITask t : tasks) addTask(t);
+    }
+
+    /**
+     * Run several DAO calls as one atomic unit: all commit or, on an exception, none do.
+     * Nested calls join the outer unit. The default has no transactions and just runs the work.
+     */
+    default void runInTransaction(Work work) throws TasksDAOException { work.run(); }
+
+    /**
+     * Hand every task matching {@code filter} to {@code handler}, in id order, until it returns false.
+     * The default filters getTasks(); Derby streams a cursor with the filter pushed into SQL,
+     * so the matching set is never held in memory.
+     */
+    default void forEachTask(TaskFilter filter, RowHandler handler) throws TasksDAOException {
+        for (ITask t : getTasks()) {
+            if (filter.test(t) && !handler.handle(t)) return;
+        }
+    }
+
+    /**
+     * Grouped COUNT/MIN/MAX over the tasks matching the query's filter, rows in key order.
+     * The default hash-aggregates the forEachTask stream in one pass; Derby runs a GROUP BY
+     * when the whole filter translates to SQL.
+     */
+    default List<AggregateRow> aggregate(AggregateQuery query) throws TasksDAOException {
+        HashAggregator agg = new HashAggregator(query);
+        forEachTask(query.filter(), t -> { agg.accept(t); return true; });
+        return agg.result();
+    }
+
+    /** Receives rows from forEachTask; false stops the scan. */
+    @FunctionalInterface
+    interface RowHandler { boolean handle(ITask task); }
+
+    /** DAO calls to run inside runInTransaction. */
+    @FunctionalInterface
+    interface Work { void run() throws TasksDAOException; }
 }
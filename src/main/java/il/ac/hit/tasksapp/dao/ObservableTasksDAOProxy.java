@@ -0,0 +1,134 @@
+package il.ac.hit.tasksapp.dao;
+
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.TaskField;
+import il.ac.hit.tasksapp.model.aggregate.AggregateQuery;
+import il.ac.hit.tasksapp.model.aggregate.AggregateRow;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Proxy over an ITasksDAO that notifies listeners after each successful write.
+ * - reads: plain delegation.
+ * - add/update/delete: delegate first, then notify (a failed write notifies nobody).
+ * - runInTransaction: events are held back until the unit commits (and dropped on rollback);
+ *   a unit with many writes is announced once, as tasksReplaced (listeners read the table only
+ *   if they need it).
+ */
+public class ObservableTasksDAOProxy implements ITasksDAO {
+
+    /** More buffered events than this and listeners get one tasksReplaced instead. */
+    static final int BULK_EVENT_THRESHOLD = 64;
+
+    private final ITasksDAO real;
+    private final List<TaskChangeListener> listeners = new CopyOnWriteArrayList<>();
+    /** Events of the transaction running on this thread (null outside one). */
+    private final ThreadLocal<List<Consumer<TaskChangeListener>>> pending = new ThreadLocal<>();
+
+    public ObservableTasksDAOProxy(ITasksDAO real) {
+        this.real = real;
+    }
+
+    public void addListener(TaskChangeListener l) { listeners.add(l); }
+    public void removeListener(TaskChangeListener l) { listeners.remove(l); }
+
+    /* -------- READS -------- */
+
+    @Override
+    public ITask[] getTasks() throws TasksDAOException { return real.getTasks(); }
+
+    @Override
+    public ITask getTask(int id) throws TasksDAOException { return real.getTask(id); }
+
+    @Override
+    public int countTasks() throws TasksDAOException { return real.countTasks(); }
+
+    @Override
+    public ITask[] getTasksPage(int offset, int limit) throws TasksDAOException { return real.getTasksPage(offset, limit); }
+
+    @Override
+    public int countTasks(TaskFilter filter) throws TasksDAOException { return real.countTasks(filter); }
+
+    @Override
+    public ITask[] getTasksPage(TaskFilter filter, int offset, int limit) throws TasksDAOException {
+        return real.getTasksPage(filter, offset, limit);
+    }
+
+    @Override
+    public void forEachTask(TaskFilter filter, RowHandler handler) throws TasksDAOException { real.forEachTask(filter, handler); }
+
+    @Override
+    public List<AggregateRow> aggregate(AggregateQuery query) throws TasksDAOException { return real.aggregate(query); }
+
+    /* -------- WRITES (notify) -------- */
+
+    @Override
+    public void addTask(ITask task) throws TasksDAOException {
+        real.addTask(task);
+        fire(l -> l.taskAdded(task));
+    }
+
+    @Override
+    public void updateTask(ITask task) throws TasksDAOException {
+        real.updateTask(task);
+        fire(l -> l.taskUpdated(task));
+    }
+
+    @Override
+    public void updateTaskFields(ITask task, Set<TaskField> changed) throws TasksDAOException {
+        real.updateTaskFields(task, changed);
+        fire(l -> l.taskUpdated(task));
+    }
+
+    @Override
+    public void deleteTasks() throws TasksDAOException {
+        real.deleteTasks();
+        fire(TaskChangeListener::tasksCleared);
+    }
+
+    @Override
+    public void deleteTask(int id) throws TasksDAOException {
+        real.deleteTask(id);
+        fire(l -> l.taskDeleted(id));
+    }
+
+    @Override
+    public void addTasks(ITask[] tasks) throws TasksDAOException {
+        runInTransaction(() -> {
+            real.addTasks(tasks);
+            for (ITask t : tasks) fire(l -> l.taskAdded(t));
+        });
+    }
+
+    @Override
+    public void runInTransaction(Work work) throws TasksDAOException {
+        if (pending.get() != null) { real.runInTransaction(work); return; } // nested: outer unit notifies
+        List<Consumer<TaskChangeListener>> events = new ArrayList<>();
+        pending.set(events);
+        try {
+            real.runInTransaction(work);
+        } finally {
+            pending.remove();
+        }
+        // committed
+        if (events.size() > BULK_EVENT_THRESHOLD) {
+            TaskChangeListener.Table table = h -> real.forEachTask(TaskFilter.any(), h);
+            for (TaskChangeListener l : listeners) l.tasksReplaced(table);
+        } else {
+            for (Consumer<TaskChangeListener> e : events) {
+                for (TaskChangeListener l : listeners) e.accept(l);
+            }
+        }
+    }
+
+    private void fire(Consumer<TaskChangeListener> event) {
+        List<Consumer<TaskChangeListener>> buffer = pending.get();
+        if (buffer != null) { buffer.add(event); return; }
+        for (TaskChangeListener l : listeners) event.accept(l);
+    }
+}
@@ -0,0 +1,84 @@
+package il.ac.hit.tasksapp.dao;
+
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+import il.ac.hit.tasksapp.model.filter.TaskFilter.*;
+import il.ac.hit.tasksapp.model.filter.TextTokenizer;
+import il.ac.hit.tasksapp.model.state.TaskState;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Turns a TaskFilter into a SQL WHERE clause over the tasks table, as far as it can.
+ * Parts with no SQL equivalent are left in a residual filter for the caller to apply to the
+ * fetched rows: where AND residual == the filter. TextMatches (whole words, by the Java tokenizer)
+ * is narrowed in SQL by a LIKE per term and stays in the residual for the whole-word check.
+ */
+public final class SqlFilterTranslator {
+    private SqlFilterTranslator() {}
+
+    /** WHERE text with ? placeholders, its parameters, and what is left to test in Java (null = nothing). */
+    public record Pushdown(String where, List<Object> params, TaskFilter residual) {
+        public boolean exact() { return residual == null; }
+    }
+
+    private static final Pushdown NOTHING = new Pushdown("1=1", List.of(), null);
+
+    public static Pushdown translate(TaskFilter f) {
+        return switch (f) {
+            case Any a -> NOTHING;
+            case TitleContains(String q) ->
+                    new Pushdown("lower(title) like ? escape '\\'", List.of("%" + escapeLike(q.toLowerCase()) + "%"), null);
+            case StateIs(TaskState st) -> new Pushdown("state = ?", List.of(st.name()), null);
+            case IdBetween(int lo, int hi) -> new Pushdown("id between ? and ?", List.of(lo, hi), null);
+            case TextMatches(String q) -> textPrefilter(f, TextTokenizer.tokenize(q));
+            case And(TaskFilter a, TaskFilter b) -> {
+                // each side narrows on its own; leftovers stay a conjunction
+                Pushdown pa = translate(a), pb = translate(b);
+                TaskFilter residual = pa.residual() == null ? pb.residual()
+                        : pb.residual() == null ? pa.residual() : pa.residual().and(pb.residual());
+                yield new Pushdown("(" + pa.where() + ") and (" + pb.where() + ")", concat(pa, pb), residual);
+            }
+            case Or(TaskFilter a, TaskFilter b) -> {
+                Pushdown pa = translate(a), pb = translate(b);
+                if (!pa.exact() || !pb.exact()) yield everything(f);
+                yield new Pushdown("(" + pa.where() + ") or (" + pb.where() + ")", concat(pa, pb), null);
+            }
+            case Not(TaskFilter g) -> {
+                Pushdown pg = translate(g);
+                if (!pg.exact()) yield everything(f);
+                yield new Pushdown("not (" + pg.where() + ")", pg.params(), null);
+            }
+            default -> everything(f);
+        };
+    }
+
+    /** Each term as a substring of title or description: every whole-word match, plus a few more. */
+    private static Pushdown textPrefilter(TaskFilter f, List<String> terms) {
+        if (terms.isEmpty()) return NOTHING; // no terms: TextMatches accepts every task
+        List<String> where = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(terms)) {
+            where.add("(lower(title) like ? escape '\\' or lower(description) like ? escape '\\')");
+            String like = "%" + escapeLike(term) + "%";
+            params.add(like);
+            params.add(like);
+        }
+        return new Pushdown(String.join(" and ", where), params, f);
+    }
+
+    /** Nothing pushed down: fetch all rows, test all of f in Java. */
+    private static Pushdown everything(TaskFilter f) { return new Pushdown("1=1", List.of(), f); }
+
+    private static List<Object> concat(Pushdown a, Pushdown b) {
+        List<Object> out = new ArrayList<>(a.params());
+        out.addAll(b.params());
+        return out;
+    }
+
+    /** LIKE wildcards taken literally. */
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,25 @@
+package il.ac.hit.tasksapp.dao;
+
+import il.ac.hit.tasksapp.model.ITask;
+
+/** Observer for successful DAO writes (see ObservableTasksDAOProxy). */
+public interface TaskChangeListener {
+    void taskAdded(ITask task);
+    void taskUpdated(ITask task);
+    void taskDeleted(int id);
+    void tasksCleared();
+
+    /**
+     * Many rows changed at once (e.g. a bulk restore). {@code table} reads the current table
+     * when (and only if) the listener asks. By default the change is replayed as tasksCleared
+     * and one taskAdded per row; listeners that can reload in one go, or later, override this.
+     */
+    default void tasksReplaced(Table table) throws TasksDAOException {
+        tasksCleared();
+        table.forEach(t -> { taskAdded(t); return true; });
+    }
+
+    /** The table after a bulk change, read on demand. */
+    @FunctionalInterface
+    interface Table { void forEach(ITasksDAO.RowHandler handler) throws TasksDAOException; }
+}
@@ -2,11 +2,18 @@ package il.ac.hit.tasksapp.dao;
 
 import il.ac.hit.tasksapp.model.ITask;
 import il.ac.hit.tasksapp.model.Task;
+import il.ac.hit.tasksapp.model.TaskField;
+import il.ac.hit.tasksapp.model.aggregate.Aggregate;
+import il.ac.hit.tasksapp.model.aggregate.AggregateQuery;
+import il.ac.hit.tasksapp.model.aggregate.AggregateRow;
+import il.ac.hit.tasksapp.model.aggregate.GroupKey;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
 import il.ac.hit.tasksapp.model.state.TaskState;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Derby embedded DAO (Singleton).
@@ -17,14 +24,23 @@ public final class TasksDAOImpl implements ITasksDAO {
     /** Singleton holder (eager). */
     private static final TasksDAOImpl INSTANCE = new TasksDAOImpl();
 
+    private static final String URL = "jdbc:derby:tasksdb";
+
     /** Derby connection (embedded). */
     private final Connection conn;
 
+    /** Rows per JDBC batch in addTasks. */
+    private static final int BATCH_SIZE = 1000;
+    /** Rows per round trip when streaming a cursor in forEachTask. */
+    private static final int FETCH_SIZE = 500;
+    /** True while runInTransaction holds autocommit off. */
+    private boolean inTransaction;
+
     /** Private ctor (Singleton). */
     private TasksDAOImpl() {
         try {
             try { Class.forName("org.apache.derby.jdbc.EmbeddedDriver"); } catch (ClassNotFoundException ignore) { }
-            this.conn = DriverManager.getConnection("jdbc:derby:tasksdb;create=true");
+            this.conn = DriverManager.getConnection(URL + ";create=true");
             createTableIfMissing();
         } catch (SQLException e) {
             throw new RuntimeException("Derby init failed", e);
@@ -67,6 +83,148 @@ public final class TasksDAOImpl implements ITasksDAO {
         }
     }
 
+    @Override
+    public synchronized int countTasks() throws TasksDAOException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("select count(*) from tasks")) {
+            rs.next();
+            return rs.getInt(1);
+        } catch (SQLException e) {
+            throw new TasksDAOException("countTasks failed", e);
+        }
+    }
+
+    @Override
+    public synchronized ITask[] getTasksPage(int offset, int limit) throws TasksDAOException {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset/limit must be >= 0");
+        if (limit == 0) return new ITask[0];
+        final String sql = "select id, title, description, state from tasks order by id "
+                + "offset ? rows fetch next ? rows only";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, offset);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<ITask> list = new ArrayList<>(limit);
+                while (rs.next()) list.add(map(rs));
+                return list.toArray(new ITask[0]);
+            }
+        } catch (SQLException e) {
+            throw new TasksDAOException("getTasksPage failed at offset=" + offset, e);
+        }
+    }
+
+    /** COUNT in SQL when the filter translates completely; otherwise the streamed default. */
+    @Override
+    public int countTasks(TaskFilter filter) throws TasksDAOException {
+        SqlFilterTranslator.Pushdown p = SqlFilterTranslator.translate(filter);
+        if (!p.exact()) return ITasksDAO.super.countTasks(filter);
+        synchronized (this) {
+            try (PreparedStatement ps = conn.prepareStatement("select count(*) from tasks where " + p.where())) {
+                bind(ps, p.params(), 1);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            } catch (SQLException e) {
+                throw new TasksDAOException("countTasks failed for " + filter.describe(), e);
+            }
+        }
+    }
+
+    /** OFFSET / FETCH with the filter in SQL when it translates completely; otherwise the streamed default. */
+    @Override
+    public ITask[] getTasksPage(TaskFilter filter, int offset, int limit) throws TasksDAOException {
+        SqlFilterTranslator.Pushdown p = SqlFilterTranslator.translate(filter);
+        if (!p.exact()) return ITasksDAO.super.getTasksPage(filter, offset, limit);
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset/limit must be >= 0");
+        if (limit == 0) return new ITask[0];
+        final String sql = "select id, title, description, state from tasks where " + p.where()
+                + " order by id offset ? rows fetch next ? rows only";
+        synchronized (this) {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                int i = bind(ps, p.params(), 1);
+                ps.setInt(i, offset);
+                ps.setInt(i + 1, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    List<ITask> list = new ArrayList<>(limit);
+                    while (rs.next()) list.add(map(rs));
+                    return list.toArray(new ITask[0]);
+                }
+            } catch (SQLException e) {
+                throw new TasksDAOException("getTasksPage failed for " + filter.describe() + " at offset=" + offset, e);
+            }
+        }
+    }
+
+    /** Set {@code params} from index {@code first}; returns the next free index. */
+    private static int bind(PreparedStatement ps, List<Object> params, int first) throws SQLException {
+        for (Object o : params) ps.setObject(first++, o);
+        return first;
+    }
+
+    /**
+     * Streams on a connection of its own, so a long export neither holds this DAO's lock
+     * nor sees another thread's uncommitted unit.
+     */
+    @Override
+    public void forEachTask(TaskFilter filter, RowHandler handler) throws TasksDAOException {
+        SqlFilterTranslator.Pushdown p = SqlFilterTranslator.translate(filter);
+        final String sql = "select id, title, description, state from tasks where " + p.where() + " order by id";
+        try (Connection c = DriverManager.getConnection(URL);
+             PreparedStatement ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            c.setReadOnly(true);
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < p.params().size(); i++) ps.setObject(i + 1, p.params().get(i));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ITask t = map(rs);
+                    if (p.residual() != null && !p.residual().test(t)) continue;
+                    if (!handler.handle(t)) return;
+                }
+            }
+        } catch (SQLException e) {
+            throw new TasksDAOException("forEachTask failed for " + filter.describe(), e);
+        }
+    }
+
+    /**
+     * GROUP BY in Derby when the filter translates completely; otherwise the default
+     * (partially pushed-down cursor, hash-aggregated in memory).
+     */
+    @Override
+    public List<AggregateRow> aggregate(AggregateQuery q) throws TasksDAOException {
+        SqlFilterTranslator.Pushdown p = SqlFilterTranslator.translate(q.filter());
+        if (!p.exact()) return ITasksDAO.super.aggregate(q);
+
+        // keys are computed in a derived table so GROUP BY only names columns
+        StringBuilder inner = new StringBuilder("select id, title");
+        StringBuilder outer = new StringBuilder("select ");
+        StringBuilder groupBy = new StringBuilder();
+        for (int i = 0; i < q.groupBy().size(); i++) {
+            inner.append(", ").append(keySql(q.groupBy().get(i))).append(" as k").append(i);
+            outer.append('k').append(i).append(", ");
+            groupBy.append(i == 0 ? " group by " : ", ").append('k').append(i);
+        }
+        for (int i = 0; i < q.aggregates().size(); i++) {
+            outer.append(i == 0 ? "" : ", ").append(aggregateSql(q.aggregates().get(i)));
+        }
+        String sql = outer + " from (" + inner + " from tasks where " + p.where() + ") t" + groupBy;
+
+        synchronized (this) {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (int i = 0; i < p.params().size(); i++) ps.setObject(i + 1, p.params().get(i));
+                try (ResultSet rs = ps.executeQuery()) {
+                    List<AggregateRow> rows = new ArrayList<>();
+                    while (rs.next()) rows.add(aggregateRow(rs, q));
+                    rows.sort(AggregateRow.BY_KEYS); // Java order for every key type (state: enum order)
+                    return rows;
+                }
+            } catch (SQLException e) {
+                throw new TasksDAOException("aggregate failed", e);
+            }
+        }
+    }
+
     @Override
     public synchronized ITask getTask(int id) throws TasksDAOException {
         final String sql = "select id, title, description, state from tasks where id = ?";
@@ -95,6 +253,55 @@ public final class TasksDAOImpl implements ITasksDAO {
         }
     }
 
+    @Override
+    public synchronized void addTasks(ITask[] tasks) throws TasksDAOException {
+        final String sql = "insert into tasks(id, title, description, state) values(?, ?, ?, ?)";
+        runInTransaction(() -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                int pending = 0;
+                for (ITask task : tasks) {
+                    ps.setInt(1, task.getId());
+                    ps.setString(2, task.getTitle());
+                    ps.setString(3, task.getDescription());
+                    ps.setString(4, task.getState().name());
+                    ps.addBatch();
+                    if (++pending == BATCH_SIZE) { ps.executeBatch(); pending = 0; }
+                }
+                if (pending > 0) ps.executeBatch();
+            } catch (SQLException e) {
+                throw new TasksDAOException("addTasks failed (" + tasks.length + " tasks)", e);
+            }
+        });
+    }
+
+    /** Autocommit off for the whole unit; commit at the end, roll back on any exception. */
+    @Override
+    public synchronized void runInTransaction(Work work) throws TasksDAOException {
+        if (inTransaction) { work.run(); return; } // joins the outer unit
+        try {
+            conn.setAutoCommit(false);
+        } catch (SQLException e) {
+            throw new TasksDAOException("begin transaction failed", e);
+        }
+        inTransaction = true;
+        boolean committed = false;
+        try {
+            work.run();
+            conn.commit();
+            committed = true;
+        } catch (SQLException e) {
+            throw new TasksDAOException("commit failed", e);
+        } finally {
+            inTransaction = false;
+            try {
+                if (!committed) conn.rollback();
+                conn.setAutoCommit(true);
+            } catch (SQLException ignore) {
+                // the original failure (if any) is the one worth reporting
+            }
+        }
+    }
+
     @Override
     public synchronized void updateTask(ITask task) throws TasksDAOException {
         final String sql = "update tasks set title=?, description=?, state=? where id=?";
@@ -109,6 +316,31 @@ public final class TasksDAOImpl implements ITasksDAO {
         }
     }
 
+    @Override
+    public synchronized void updateTaskFields(ITask task, Set<TaskField> changed) throws TasksDAOException {
+        if (changed.isEmpty()) return;
+        StringBuilder sql = new StringBuilder("update tasks set ");
+        for (TaskField f : changed) {
+            if (sql.charAt(sql.length() - 1) == '?') sql.append(", ");
+            sql.append(column(f)).append("=?");
+        }
+        sql.append(" where id=?");
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            for (TaskField f : changed) {
+                switch (f) {
+                    case TITLE -> ps.setString(i++, task.getTitle());
+                    case DESCRIPTION -> ps.setString(i++, task.getDescription());
+                    case STATE -> ps.setString(i++, task.getState().name());
+                }
+            }
+            ps.setInt(i, task.getId());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new TasksDAOException("updateTaskFields failed for id=" + task.getId(), e);
+        }
+    }
+
     @Override
     public synchronized void deleteTasks() throws TasksDAOException {
         try (Statement st = conn.createStatement()) {
@@ -131,6 +363,49 @@ public final class TasksDAOImpl implements ITasksDAO {
 
     /* -------------------- helpers -------------------- */
 
+    private static String keySql(GroupKey k) {
+        return switch (k) {
+            case GroupKey.State s -> "state";
+            case GroupKey.IdBucket(int width) -> "id / " + width + " * " + width;
+            case GroupKey.TitlePrefix(int n) ->
+                    "case when length(title) <= " + n + " then title else substr(title, 1, " + n + ") end";
+        };
+    }
+
+    private static String aggregateSql(Aggregate a) {
+        if (a.fn() == Aggregate.Fn.COUNT) return "count(*)";
+        return a.fn().name().toLowerCase() + "(" + (a.column() == Aggregate.Column.ID ? "id" : "title") + ")";
+    }
+
+    private static AggregateRow aggregateRow(ResultSet rs, AggregateQuery q) throws SQLException {
+        int col = 1;
+        List<Object> keys = new ArrayList<>(q.groupBy().size());
+        for (GroupKey k : q.groupBy()) {
+            keys.add(switch (k) {
+                case GroupKey.State s -> TaskState.valueOf(rs.getString(col++));
+                case GroupKey.IdBucket b -> rs.getInt(col++);
+                case GroupKey.TitlePrefix t -> rs.getString(col++);
+            });
+        }
+        List<Object> values = new ArrayList<>(q.aggregates().size());
+        for (Aggregate a : q.aggregates()) {
+            Object v;
+            if (a.fn() == Aggregate.Fn.COUNT) v = rs.getLong(col++);
+            else if (a.column() == Aggregate.Column.ID) { int id = rs.getInt(col++); v = rs.wasNull() ? null : id; }
+            else v = rs.getString(col++);
+            values.add(v);
+        }
+        return new AggregateRow(keys, values);
+    }
+
+    private static String column(TaskField f) {
+        return switch (f) {
+            case TITLE -> "title";
+            case DESCRIPTION -> "description";
+            case STATE -> "state";
+        };
+    }
+
     private static ITask map(ResultSet rs) throws SQLException {
         int id = rs.getInt("id");
         String title = rs.getString("title");
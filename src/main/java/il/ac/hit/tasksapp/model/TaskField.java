@@ -0,0 +1,4 @@
+package il.ac.hit.tasksapp.model;
+
+/** The editable columns of a task (the id is the key and never changes). */
+public enum TaskField { TITLE, DESCRIPTION, STATE }
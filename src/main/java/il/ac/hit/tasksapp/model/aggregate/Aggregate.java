@@ -0,0 +1,21 @@
+package il.ac.hit.tasksapp.model.aggregate;
+
+/**
+ * One aggregate column: COUNT of the group's tasks, or MIN/MAX of a task column.
+ * Values: Long for COUNT, Integer for ID, String for TITLE (null if the group is empty).
+ */
+public record Aggregate(Fn fn, Column column) {
+
+    public enum Fn { COUNT, MIN, MAX }
+
+    public enum Column { ID, TITLE }
+
+    public Aggregate {
+        if (fn == Fn.COUNT) column = null;
+        else if (column == null) throw new IllegalArgumentException(fn + " needs a column");
+    }
+
+    public static Aggregate count() { return new Aggregate(Fn.COUNT, null); }
+    public static Aggregate min(Column c) { return new Aggregate(Fn.MIN, c); }
+    public static Aggregate max(Column c) { return new Aggregate(Fn.MAX, c); }
+}
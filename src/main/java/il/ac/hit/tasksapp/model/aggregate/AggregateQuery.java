@@ -0,0 +1,25 @@
+package il.ac.hit.tasksapp.model.aggregate;
+
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+
+import java.util.List;
+
+/**
+ * GROUP BY {@code groupBy} over the tasks passing {@code filter}, computing {@code aggregates}
+ * per group. No group keys = one row over all matching tasks (even when none match).
+ */
+public record AggregateQuery(List<GroupKey> groupBy, List<Aggregate> aggregates, TaskFilter filter) {
+
+    public AggregateQuery {
+        groupBy = List.copyOf(groupBy);
+        aggregates = List.copyOf(aggregates);
+        if (aggregates.isEmpty()) throw new IllegalArgumentException("at least one aggregate is required");
+        if (filter == null) filter = TaskFilter.any();
+    }
+
+    public static AggregateQuery of(List<GroupKey> groupBy, Aggregate... aggregates) {
+        return new AggregateQuery(groupBy, List.of(aggregates), TaskFilter.any());
+    }
+
+    public AggregateQuery where(TaskFilter f) { return new AggregateQuery(groupBy, aggregates, f); }
+}
@@ -0,0 +1,25 @@
+package il.ac.hit.tasksapp.model.aggregate;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/** One group: its key values (in groupBy order) and aggregate values (in aggregates order). */
+public record AggregateRow(List<Object> keys, List<Object> values) {
+
+    public AggregateRow {
+        // values may hold nulls (MIN/MAX of nothing), so no List.copyOf
+        keys = Collections.unmodifiableList(keys);
+        values = Collections.unmodifiableList(values);
+    }
+
+    /** Rows in key order, the order every aggregate() result comes in. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static final Comparator<AggregateRow> BY_KEYS = (a, b) -> {
+        for (int i = 0; i < a.keys.size(); i++) {
+            int c = ((Comparable) a.keys.get(i)).compareTo(b.keys.get(i));
+            if (c != 0) return c;
+        }
+        return 0;
+    };
+}
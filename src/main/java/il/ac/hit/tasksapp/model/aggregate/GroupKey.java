@@ -0,0 +1,38 @@
+package il.ac.hit.tasksapp.model.aggregate;
+
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.state.TaskState;
+
+/** What to group tasks by. Key values: TaskState, Integer (bucket start) or String (prefix). */
+public sealed interface GroupKey {
+
+    /** This task's key value. */
+    Comparable<?> of(ITask t);
+
+    static GroupKey state() { return new State(); }
+    static GroupKey idBucket(int width) { return new IdBucket(width); }
+    static GroupKey titlePrefix(int length) { return new TitlePrefix(length); }
+
+    record State() implements GroupKey {
+        @Override public TaskState of(ITask t) { return t.getState(); }
+    }
+
+    /** Ids [k * width, (k + 1) * width) share the key k * width. */
+    record IdBucket(int width) implements GroupKey {
+        public IdBucket {
+            if (width < 1) throw new IllegalArgumentException("bucket width must be positive");
+        }
+        @Override public Integer of(ITask t) { return t.getId() / width * width; }
+    }
+
+    /** The first {@code length} characters of the title (all of a shorter one). */
+    record TitlePrefix(int length) implements GroupKey {
+        public TitlePrefix {
+            if (length < 1) throw new IllegalArgumentException("prefix length must be positive");
+        }
+        @Override public String of(ITask t) {
+            String title = t.getTitle();
+            return title.length() <= length ? title : title.substring(0, length);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package il.ac.hit.tasksapp.model.aggregate;
+
+import il.ac.hit.tasksapp.model.ITask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass in-memory aggregation: one hash entry per group, updated as tasks are fed in.
+ * Applies no filter itself (the caller feeds only matching tasks).
+ */
+public final class HashAggregator {
+    private final AggregateQuery query;
+    private final Map<List<Object>, Acc> groups = new HashMap<>();
+
+    /** Running values of one group. */
+    private final class Acc {
+        long count;
+        final int[] ids = new int[query.aggregates().size()];
+        final String[] titles = new String[query.aggregates().size()];
+    }
+
+    public HashAggregator(AggregateQuery query) { this.query = query; }
+
+    public void accept(ITask t) {
+        List<GroupKey> by = query.groupBy();
+        Object[] key = new Object[by.size()];
+        for (int i = 0; i < key.length; i++) key[i] = by.get(i).of(t);
+        Acc acc = groups.computeIfAbsent(Arrays.asList(key), k -> new Acc());
+
+        boolean first = acc.count++ == 0;
+        List<Aggregate> aggs = query.aggregates();
+        for (int i = 0; i < aggs.size(); i++) {
+            Aggregate a = aggs.get(i);
+            if (a.fn() == Aggregate.Fn.COUNT) continue;
+            boolean min = a.fn() == Aggregate.Fn.MIN;
+            if (a.column() == Aggregate.Column.ID) {
+                int id = t.getId();
+                if (first || (min ? id < acc.ids[i] : id > acc.ids[i])) acc.ids[i] = id;
+            } else {
+                String title = t.getTitle();
+                if (first || (min ? title.compareTo(acc.titles[i]) < 0 : title.compareTo(acc.titles[i]) > 0)) {
+                    acc.titles[i] = title;
+                }
+            }
+        }
+    }
+
+    /** One row per group, in key order. */
+    public List<AggregateRow> result() {
+        if (groups.isEmpty() && query.groupBy().isEmpty()) groups.put(List.of(), new Acc()); // like SQL
+        List<AggregateRow> rows = new ArrayList<>(groups.size());
+        List<Aggregate> aggs = query.aggregates();
+        groups.forEach((key, acc) -> {
+            List<Object> values = new ArrayList<>(aggs.size());
+            for (int i = 0; i < aggs.size(); i++) {
+                Aggregate a = aggs.get(i);
+                if (a.fn() == Aggregate.Fn.COUNT) values.add(acc.count);
+                else if (acc.count == 0) values.add(null);
+                else values.add(a.column() == Aggregate.Column.ID ? (Object) acc.ids[i] : acc.titles[i]);
+            }
+            rows.add(new AggregateRow(key, values));
+        });
+        rows.sort(AggregateRow.BY_KEYS);
+        return rows;
+    }
+}
@@ -0,0 +1,37 @@
+package il.ac.hit.tasksapp.model.filter;
+
+import il.ac.hit.tasksapp.model.filter.TaskFilter.*;
+
+import java.util.HashSet;
+
+/**
+ * Decides whether one filter only narrows another: every task passing the new filter also
+ * passes the old one, so the old result can be re-filtered instead of scanning all tasks
+ * (e.g. typing "ab" -> "abc" in a title search). The check is conservative: false means
+ * "not known to narrow", never "wrong".
+ */
+public final class FilterRefinement {
+    private FilterRefinement() {}
+
+    /** True if {@code newer} accepts a subset of what {@code older} accepts. */
+    public static boolean narrows(TaskFilter newer, TaskFilter older) {
+        if (newer.equals(older) || older instanceof Any) return true;
+
+        // break up the older filter first: it must hold for every task newer accepts
+        if (older instanceof And(TaskFilter a, TaskFilter b)) return narrows(newer, a) && narrows(newer, b);
+        if (newer instanceof Or(TaskFilter a, TaskFilter b)) return narrows(a, older) && narrows(b, older);
+        if (newer instanceof And(TaskFilter a, TaskFilter b)) return narrows(a, older) || narrows(b, older);
+        if (older instanceof Or(TaskFilter a, TaskFilter b)) return narrows(newer, a) || narrows(newer, b);
+
+        return switch (newer) {
+            case TitleContains(String q) when older instanceof TitleContains(String p) ->
+                    q.toLowerCase().contains(p.toLowerCase());
+            case TextMatches(String q) when older instanceof TextMatches(String p) ->
+                    new HashSet<>(TextTokenizer.tokenize(q)).containsAll(TextTokenizer.tokenize(p));
+            case IdBetween(int lo, int hi) when older instanceof IdBetween(int oldLo, int oldHi) ->
+                    lo > hi || (lo >= oldLo && hi <= oldHi);
+            case Not(TaskFilter f) when older instanceof Not(TaskFilter g) -> narrows(g, f);
+            default -> false;
+        };
+    }
+}
@@ -3,6 +3,10 @@ package il.ac.hit.tasksapp.model.filter;
 import il.ac.hit.tasksapp.model.ITask;
 import il.ac.hit.tasksapp.model.state.TaskState;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Combinator filter for tasks. Each filter can describe itself as a simple DSL string.
  */
@@ -23,6 +27,8 @@ public interface TaskFilter {
 
     static TaskFilter byIdBetween(int lo, int hi) { return new IdBetween(lo, hi); }
 
+    static TaskFilter byText(String q) { return new TextMatches(q); }
+
     /* ---- combinators ---- */
 
     default TaskFilter and(TaskFilter other) { return new And(this, other); }
@@ -45,6 +51,17 @@ public interface TaskFilter {
         @Override public String describe() { return "TITLE CONTAINS \"" + q + "\""; }
     }
 
+    /** Every term of q appears as a whole word in title or description (case-insensitive). */
+    record TextMatches(String q) implements TaskFilter {
+        @Override public boolean test(ITask t) {
+            List<String> terms = TextTokenizer.tokenize(q);
+            if (terms.isEmpty()) return true;
+            Set<String> words = new HashSet<>(TextTokenizer.tokenize(t.getTitle(), t.getDescription()));
+            return words.containsAll(terms);
+        }
+        @Override public String describe() { return "TEXT MATCHES \"" + q + "\""; }
+    }
+
     record StateIs(TaskState st) implements TaskFilter {
         @Override public boolean test(ITask t) { return t.getState() == st; }
         @Override public String describe() { return "STATE IS " + st; }
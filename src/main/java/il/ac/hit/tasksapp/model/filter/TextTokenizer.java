@@ -0,0 +1,38 @@
+package il.ac.hit.tasksapp.model.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits free text into lowercase terms.
+ * A term is a maximal run of letters/digits; everything else is a separator.
+ * Shared by the TEXT MATCHES filter and the full-text index so both agree on terms.
+ */
+public final class TextTokenizer {
+    private TextTokenizer() {}
+
+    /** Terms of the given text, in order (duplicates kept). Null -> empty list. */
+    public static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        int n = text.length();
+        int start = -1;
+        for (int i = 0; i <= n; i++) {
+            boolean word = i < n && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) start = i;
+            else if (!word && start >= 0) {
+                out.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    /** Terms of a task's searchable text (title + description). */
+    public static List<String> tokenize(String title, String description) {
+        List<String> out = tokenize(title);
+        out.addAll(tokenize(description));
+        return out;
+    }
+}
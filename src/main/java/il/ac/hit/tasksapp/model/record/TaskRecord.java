@@ -4,14 +4,20 @@ import il.ac.hit.tasksapp.model.ITask;
 import il.ac.hit.tasksapp.model.state.TaskState;
 
 /**
- * Immutable data carrier used by Visitors.
+ * Immutable data carrier; also an ITask, so it can be visited like any other task.
  */
-public record TaskRecord(int id, String title, String description, TaskState state) {
+public record TaskRecord(int id, String title, String description, TaskState state) implements ITask {
 
     /**
-     * Build a TaskRecord snapshot from an ITask.
+     * Build a TaskRecord snapshot from an ITask (a record is returned as is).
      */
     public static TaskRecord from(ITask task) {
+        if (task instanceof TaskRecord r) return r;
         return new TaskRecord(task.getId(), task.getTitle(), task.getDescription(), task.getState());
     }
+
+    @Override public int getId() { return id; }
+    @Override public String getTitle() { return title; }
+    @Override public String getDescription() { return description; }
+    @Override public TaskState getState() { return state; }
 }
@@ -0,0 +1,86 @@
+package il.ac.hit.tasksapp.model.visitor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Shared pieces of the columnar file format (see ColumnarStreamVisitor for the layout):
+ * constants, varints and the (optionally deflated) string-column block.
+ */
+final class ColumnarFormat {
+    private ColumnarFormat() {}
+
+    static final byte[] MAGIC = {'T', 'S', 'K', 'C'};
+    static final byte VERSION = 1;
+    /** Magic + version. */
+    static final int HEADER_BYTES = MAGIC.length + 1;
+    /** Footer length int + magic. */
+    static final int TRAILER_BYTES = 4 + MAGIC.length;
+    /** Per row group in the footer: offset long, length int, rows int, min id int, max id int. */
+    static final int GROUP_ENTRY_BYTES = 8 + 4 * 4;
+
+    static final byte RAW = 0;
+    static final byte DEFLATE = 1;
+
+    static void writeVarint(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    static int readVarint(ByteBuffer in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static int zigzag(int v) { return (v << 1) ^ (v >> 31); }
+    static int unzigzag(int v) { return (v >>> 1) ^ -(v & 1); }
+
+    /**
+     * codec byte, raw length varint, stored length varint, bytes; deflated only when that is
+     * smaller. {@code scratch} must hold at least {@code len} bytes.
+     */
+    static void writeBlock(ByteArrayOutputStream out, byte[] raw, int len, Deflater deflater, byte[] scratch) {
+        deflater.reset();
+        deflater.setInput(raw, 0, len);
+        deflater.finish();
+        int packed = 0;
+        while (!deflater.finished() && packed < len) packed += deflater.deflate(scratch, packed, len - packed);
+        boolean deflated = deflater.finished() && packed < len;
+        out.write(deflated ? DEFLATE : RAW);
+        writeVarint(out, len);
+        writeVarint(out, deflated ? packed : len);
+        out.write(deflated ? scratch : raw, 0, deflated ? packed : len);
+    }
+
+    static ByteBuffer readBlock(ByteBuffer in, Inflater inflater) throws IOException {
+        byte codec = in.get();
+        int len = readVarint(in);
+        int stored = readVarint(in);
+        if (len < 0 || stored < 0 || stored > in.remaining()) throw new IOException("Corrupt column block");
+        ByteBuffer src = in.slice(in.position(), stored);
+        in.position(in.position() + stored);
+        if (codec == RAW) return src;
+        if (codec != DEFLATE) throw new IOException("Unknown column codec " + codec);
+        byte[] raw = new byte[len];
+        inflater.reset();
+        inflater.setInput(src);
+        try {
+            if (inflater.inflate(raw) != len || !inflater.finished()) throw new IOException("Corrupt column block");
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column block", e);
+        }
+        return ByteBuffer.wrap(raw);
+    }
+}
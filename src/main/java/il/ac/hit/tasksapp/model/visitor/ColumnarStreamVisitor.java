@@ -0,0 +1,167 @@
+package il.ac.hit.tasksapp.model.visitor;
+
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.state.TaskState;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static il.ac.hit.tasksapp.model.visitor.ColumnarFormat.*;
+
+/**
+ * Writes tasks in a columnar binary file for analytics jobs (read back with ColumnarTaskReader).
+ * Rows are buffered column by column and written one row group at a time.
+ *
+ * <pre>
+ * file   = "TSKC" version:byte group* footer footerLength:int "TSKC"
+ * group  = rows:varint
+ *          id column:     first id:int, then zigzag varint delta per following row
+ *          state column:  dictionary size:byte, names (length:short, UTF-8), one code byte per row
+ *          title, description: string block of (UTF-8 length varint, bytes) per row
+ * block  = codec:byte (0 raw, 1 deflate), raw length varint, stored length varint, bytes
+ * footer = groups:int, then per group offset:long length:int rows:int minId:int maxId:int
+ * </pre>
+ * visit() reports write errors as UncheckedIOException; call finish() at the end.
+ */
+public class ColumnarStreamVisitor implements TaskVisitor {
+
+    public static final int DEFAULT_ROW_GROUP = 8_192;
+
+    private static final TaskState[] STATES = TaskState.values();
+
+    private final OutputStream out;
+    private final int rowGroup;
+    private final int[] ids;
+    private final byte[] states;
+    private final String[] titles;
+    private final String[] descriptions;
+    private int rows;
+
+    private final ByteArrayOutputStream group = new ByteArrayOutputStream(64 * 1024);
+    private final ByteArrayOutputStream column = new ByteArrayOutputStream(64 * 1024);
+    private final ByteArrayOutputStream footer = new ByteArrayOutputStream();
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+    private byte[] scratch = new byte[0];
+    private long position;
+    private int groups;
+    private boolean started;
+    private boolean finished;
+
+    public ColumnarStreamVisitor(OutputStream out) { this(out, DEFAULT_ROW_GROUP); }
+
+    public ColumnarStreamVisitor(OutputStream out, int rowGroup) {
+        if (rowGroup < 1) throw new IllegalArgumentException("row group must hold at least one row");
+        this.out = out;
+        this.rowGroup = rowGroup;
+        this.ids = new int[rowGroup];
+        this.states = new byte[rowGroup];
+        this.titles = new String[rowGroup];
+        this.descriptions = new String[rowGroup];
+    }
+
+    @Override
+    public void visit(ITask t) {
+        if (finished) throw new IllegalStateException("already finished");
+        ids[rows] = t.getId();
+        states[rows] = (byte) t.getState().ordinal();
+        titles[rows] = t.getTitle();
+        descriptions[rows] = t.getDescription();
+        if (++rows == rowGroup) {
+            try {
+                flushGroup();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /** Last row group, footer and flush; does not close the stream. */
+    public void finish() throws IOException {
+        if (finished) return;
+        flushGroup();
+        start();
+        ByteBuffer head = ByteBuffer.allocate(4).putInt(groups);
+        out.write(head.array());
+        footer.writeTo(out);
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES).putInt(4 + footer.size()).put(MAGIC);
+        out.write(trailer.array());
+        out.flush();
+        deflater.end();
+        finished = true;
+    }
+
+    /* -------- internals -------- */
+
+    private void start() throws IOException {
+        if (started) return;
+        started = true;
+        out.write(MAGIC);
+        out.write(VERSION);
+        position = HEADER_BYTES;
+    }
+
+    private void flushGroup() throws IOException {
+        if (rows == 0) return;
+        start();
+        group.reset();
+        writeVarint(group, rows);
+
+        int min = ids[0], max = ids[0];
+        group.write(ByteBuffer.allocate(4).putInt(ids[0]).array());
+        for (int i = 1; i < rows; i++) {
+            writeVarint(group, zigzag(ids[i] - ids[i - 1]));
+            min = Math.min(min, ids[i]);
+            max = Math.max(max, ids[i]);
+        }
+
+        // dictionary: only the states present, in first-seen order
+        byte[] code = new byte[STATES.length];
+        Arrays.fill(code, (byte) -1);
+        column.reset();
+        int dict = 0;
+        for (int i = 0; i < rows; i++) {
+            int s = states[i];
+            if (code[s] < 0) {
+                code[s] = (byte) dict++;
+                byte[] name = STATES[s].name().getBytes(StandardCharsets.UTF_8);
+                column.write(name.length >>> 8);
+                column.write(name.length);
+                column.write(name, 0, name.length);
+            }
+        }
+        group.write(dict);
+        column.writeTo(group);
+        for (int i = 0; i < rows; i++) group.write(code[states[i]]);
+
+        writeStrings(titles);
+        writeStrings(descriptions);
+
+        group.writeTo(out);
+        ByteBuffer entry = ByteBuffer.allocate(GROUP_ENTRY_BYTES)
+                .putLong(position).putInt(group.size()).putInt(rows).putInt(min).putInt(max);
+        footer.write(entry.array());
+        position += group.size();
+        groups++;
+        Arrays.fill(titles, 0, rows, null);
+        Arrays.fill(descriptions, 0, rows, null);
+        rows = 0;
+    }
+
+    private void writeStrings(String[] values) {
+        column.reset();
+        for (int i = 0; i < rows; i++) {
+            byte[] b = values[i] == null ? new byte[0] : values[i].getBytes(StandardCharsets.UTF_8);
+            writeVarint(column, b.length);
+            column.write(b, 0, b.length);
+        }
+        if (scratch.length < column.size()) scratch = new byte[column.size()];
+        byte[] raw = column.toByteArray();
+        writeBlock(group, raw, raw.length, deflater, scratch);
+    }
+}
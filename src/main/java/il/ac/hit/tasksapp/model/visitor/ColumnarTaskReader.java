@@ -0,0 +1,162 @@
+package il.ac.hit.tasksapp.model.visitor;
+
+import il.ac.hit.tasksapp.model.record.TaskRecord;
+import il.ac.hit.tasksapp.model.state.TaskState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Inflater;
+
+import static il.ac.hit.tasksapp.model.visitor.ColumnarFormat.*;
+
+/**
+ * Reads a file written by ColumnarStreamVisitor. The footer is loaded on open; read() then
+ * decodes only the row groups whose id range overlaps the requested one, and within those
+ * decodes the string columns only if some id matches.
+ */
+public final class ColumnarTaskReader implements AutoCloseable {
+
+    /** Footer entry of one row group. */
+    public record RowGroup(long offset, int length, int rows, int minId, int maxId) {
+        boolean overlaps(int from, int to) { return minId <= to && maxId >= from; }
+    }
+
+    private final FileChannel ch;
+    private final List<RowGroup> groups;
+    private final Inflater inflater = new Inflater(true);
+    private long groupsRead;
+
+    public ColumnarTaskReader(Path file) throws IOException {
+        this.ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.groups = readFooter();
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    public List<RowGroup> rowGroups() { return groups; }
+
+    public long rowCount() {
+        long n = 0;
+        for (RowGroup g : groups) n += g.rows();
+        return n;
+    }
+
+    /** Row groups decoded so far (skipped ones don't count). */
+    public long groupsRead() { return groupsRead; }
+
+    /** Visit every row, in file order. Returns the rows visited. */
+    public long readAll(TaskVisitor v) throws IOException {
+        return read(Integer.MIN_VALUE, Integer.MAX_VALUE, v);
+    }
+
+    /** Visit the rows with {@code fromId <= id <= toId}, in file order. Returns the rows visited. */
+    public long read(int fromId, int toId, TaskVisitor v) throws IOException {
+        long visited = 0;
+        for (RowGroup g : groups) {
+            if (g.overlaps(fromId, toId)) visited += readGroup(g, fromId, toId, v);
+        }
+        return visited;
+    }
+
+    @Override public void close() throws IOException {
+        inflater.end();
+        ch.close();
+    }
+
+    /* -------- internals -------- */
+
+    private List<RowGroup> readFooter() throws IOException {
+        long size = ch.size();
+        if (size < HEADER_BYTES + 4 + TRAILER_BYTES) throw new IOException("Not a columnar task file");
+        ByteBuffer head = readAt(0, HEADER_BYTES);
+        byte[] magic = new byte[MAGIC.length];
+        head.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a columnar task file");
+        if (head.get() != VERSION) throw new IOException("Unsupported columnar file version");
+
+        ByteBuffer trailer = readAt(size - TRAILER_BYTES, TRAILER_BYTES);
+        int footerLength = trailer.getInt();
+        trailer.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || footerLength < 4 || footerLength > size - HEADER_BYTES - TRAILER_BYTES) {
+            throw new IOException("Corrupt columnar file footer");
+        }
+        ByteBuffer footer = readAt(size - TRAILER_BYTES - footerLength, footerLength);
+        int n = footer.getInt();
+        if (n < 0 || footer.remaining() != (long) n * GROUP_ENTRY_BYTES) throw new IOException("Corrupt columnar file footer");
+        List<RowGroup> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new RowGroup(footer.getLong(), footer.getInt(), footer.getInt(), footer.getInt(), footer.getInt()));
+        }
+        return List.copyOf(out);
+    }
+
+    private int readGroup(RowGroup g, int fromId, int toId, TaskVisitor v) throws IOException {
+        groupsRead++;
+        ByteBuffer in = readAt(g.offset(), g.length());
+        int rows = readVarint(in);
+        if (rows != g.rows()) throw new IOException("Row group does not match the footer");
+
+        int[] ids = new int[rows];
+        boolean any = false;
+        for (int i = 0; i < rows; i++) {
+            ids[i] = i == 0 ? in.getInt() : ids[i - 1] + unzigzag(readVarint(in));
+            any |= ids[i] >= fromId && ids[i] <= toId;
+        }
+        if (!any) return 0;
+
+        TaskState[] dict = new TaskState[in.get() & 0xFF];
+        for (int i = 0; i < dict.length; i++) {
+            byte[] name = new byte[in.getShort() & 0xFFFF];
+            in.get(name);
+            try {
+                dict[i] = TaskState.valueOf(new String(name, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown task state in columnar file", e);
+            }
+        }
+        int codes = in.position();
+        in.position(codes + rows);
+
+        ByteBuffer titles = readBlock(in, inflater);
+        ByteBuffer descriptions = readBlock(in, inflater);
+        int visited = 0;
+        for (int i = 0; i < rows; i++) {
+            boolean match = ids[i] >= fromId && ids[i] <= toId;
+            String title = string(titles, match);
+            String description = string(descriptions, match);
+            if (!match) continue;
+            int code = in.get(codes + i) & 0xFF;
+            if (code >= dict.length) throw new IOException("Bad state code in columnar file");
+            v.visit(new TaskRecord(ids[i], title, description, dict[code]));
+            visited++;
+        }
+        return visited;
+    }
+
+    /** Next value of a string column; skipped (null) unless {@code decode}. */
+    private static String string(ByteBuffer col, boolean decode) throws IOException {
+        int len = readVarint(col);
+        if (len > col.remaining()) throw new IOException("Corrupt string column");
+        String s = decode ? new String(col.array(), col.arrayOffset() + col.position(), len, StandardCharsets.UTF_8) : null;
+        col.position(col.position() + len);
+        return s;
+    }
+
+    private ByteBuffer readAt(long pos, int len) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(len);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, pos + buf.position()) < 0) throw new IOException("Unexpected end of columnar file");
+        }
+        return buf.flip();
+    }
+}
@@ -0,0 +1,71 @@
+package il.ac.hit.tasksapp.model.visitor;
+
+import il.ac.hit.tasksapp.model.ITask;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes CSV rows to a Writer as they are visited (nothing is kept in memory).
+ * visit() reports write errors as UncheckedIOException; call finish() at the end.
+ */
+public class CsvStreamVisitor implements TaskVisitor {
+    static final String HEADER = "id,title,description,state\n";
+
+    private final Writer out;
+    private final char[] digits = new char[Digits.MAX_CHARS];
+    private boolean started;
+
+    public CsvStreamVisitor(Writer out) { this(out, true); }
+
+    /** Without a header, for a chunk of rows (see CsvVisitor.merge). */
+    CsvStreamVisitor(Writer out, boolean header) {
+        this.out = out;
+        this.started = !header;
+    }
+
+    @Override
+    public void visit(ITask t) {
+        try {
+            start();
+            Digits.write(out, digits, t.getId());
+            out.write(',');
+            quoted(t.getTitle());
+            out.write(',');
+            quoted(t.getDescription());
+            out.write(',');
+            out.write(t.getState().name());
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Header (if no row was written) and flush; does not close the writer. */
+    public void finish() throws IOException {
+        start();
+        out.flush();
+    }
+
+    private void start() throws IOException {
+        if (started) return;
+        started = true;
+        out.write(HEADER);
+    }
+
+    /** "..." with inner quotes doubled, written in runs between quotes. */
+    private void quoted(String s) throws IOException {
+        out.write('"');
+        if (s != null) {
+            int from = 0;
+            for (int i = s.indexOf('"'); i >= 0; i = s.indexOf('"', from)) {
+                out.write(s, from, i + 1 - from);
+                out.write('"');
+                from = i + 1;
+            }
+            out.write(s, from, s.length() - from);
+        }
+        out.write('"');
+    }
+}
@@ -1,25 +1,31 @@
 package il.ac.hit.tasksapp.model.visitor;
 
-import il.ac.hit.tasksapp.model.record.TaskRecord;
+import il.ac.hit.tasksapp.model.ITask;
 
-/** Builds a CSV string. */
-public class CsvVisitor implements TaskVisitor {
-    private final StringBuilder sb = new StringBuilder("id,title,description,state\n");
+import java.io.IOException;
+import java.io.StringWriter;
+
+/** Builds a CSV string (CsvStreamVisitor over an in-memory buffer). Chunks merge by concatenation. */
+public class CsvVisitor implements MergeableVisitor<CsvVisitor> {
+    private final StringWriter rows = new StringWriter();
+    private final CsvStreamVisitor csv = new CsvStreamVisitor(rows, false);
 
     @Override
-    public void visit(TaskRecord t) {
-        sb.append(t.id()).append(',')
-                .append(escape(t.title())).append(',')
-                .append(escape(t.description())).append(',')
-                .append(t.state()).append('\n');
-    }
+    public void visit(ITask t) { csv.visit(t); }
 
-    /** Final CSV text. */
-    public String result() { return sb.toString(); }
+    @Override public CsvVisitor split() { return new CsvVisitor(); }
 
-    private static String escape(String s) {
-        if (s == null) return "";
-        String out = s.replace("\"", "\"\"");
-        return '"' + out + '"';
+    @Override public void merge(CsvVisitor right) { rows.getBuffer().append(right.rows.getBuffer()); }
+
+    /** Final CSV text. */
+    public String result() {
+        try {
+            csv.finish();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringWriter does not fail
+        }
+        StringBuffer body = rows.getBuffer();
+        return new StringBuilder(CsvStreamVisitor.HEADER.length() + body.length())
+                .append(CsvStreamVisitor.HEADER).append(body).toString();
     }
 }
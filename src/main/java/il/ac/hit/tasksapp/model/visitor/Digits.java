@@ -0,0 +1,24 @@
+package il.ac.hit.tasksapp.model.visitor;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/** Writes ints as decimal text through a caller-owned buffer, so exports create no String per row. */
+final class Digits {
+    private Digits() {}
+
+    static final int MAX_CHARS = 11; // "-2147483648"
+
+    static void write(Writer out, char[] buf, int v) throws IOException {
+        if (v == Integer.MIN_VALUE) { out.write(Integer.toString(v)); return; }
+        int pos = buf.length;
+        boolean negative = v < 0;
+        if (negative) v = -v;
+        do {
+            buf[--pos] = (char) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        if (negative) buf[--pos] = '-';
+        out.write(buf, pos, buf.length - pos);
+    }
+}
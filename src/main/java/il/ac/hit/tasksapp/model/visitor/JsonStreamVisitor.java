@@ -0,0 +1,73 @@
+package il.ac.hit.tasksapp.model.visitor;
+
+import il.ac.hit.tasksapp.model.ITask;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes a compact JSON array to a Writer as tasks are visited (nothing is kept in memory).
+ * visit() reports write errors as UncheckedIOException; finish() closes the array.
+ */
+public class JsonStreamVisitor implements TaskVisitor {
+    private final Writer out;
+    private final boolean bare;
+    private final char[] digits = new char[Digits.MAX_CHARS];
+    private boolean started;
+    private boolean finished;
+
+    public JsonStreamVisitor(Writer out) { this(out, false); }
+
+    /** Bare: objects only, no brackets or commas (the caller separates; see JsonVisitor). */
+    JsonStreamVisitor(Writer out, boolean bare) {
+        this.out = out;
+        this.bare = bare;
+    }
+
+    @Override
+    public void visit(ITask t) {
+        try {
+            if (!bare) out.write(started ? "," : "[");
+            started = true;
+            out.write("{\"id\":");
+            Digits.write(out, digits, t.getId());
+            out.write(",\"title\":");
+            quoted(t.getTitle());
+            out.write(",\"description\":");
+            quoted(t.getDescription());
+            out.write(",\"state\":");
+            quoted(t.getState().name());
+            out.write('}');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Close the array (once) and flush; does not close the writer. */
+    public void finish() throws IOException {
+        if (!finished && !bare) {
+            out.write(started ? "]" : "[]");
+            finished = true;
+        }
+        out.flush();
+    }
+
+    /** JSON string with backslashes and quotes escaped. */
+    private void quoted(String s) throws IOException {
+        out.write('"');
+        if (s != null) {
+            int from = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c != '"' && c != '\\') continue;
+                out.write(s, from, i - from);
+                out.write('\\');
+                out.write(c);
+                from = i + 1;
+            }
+            out.write(s, from, s.length() - from);
+        }
+        out.write('"');
+    }
+}
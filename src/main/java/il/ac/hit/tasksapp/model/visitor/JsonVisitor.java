@@ -1,30 +1,34 @@
 package il.ac.hit.tasksapp.model.visitor;
 
-import il.ac.hit.tasksapp.model.record.TaskRecord;
+import il.ac.hit.tasksapp.model.ITask;
 
-/** Builds a compact JSON array (no external libs). */
-public class JsonVisitor implements TaskVisitor {
-    private final StringBuilder sb = new StringBuilder("[");
-    private boolean first = true;
+import java.io.StringWriter;
+
+/**
+ * Builds a compact JSON array (no external libs; JsonStreamVisitor over an in-memory buffer).
+ * Chunks merge by concatenation.
+ */
+public class JsonVisitor implements MergeableVisitor<JsonVisitor> {
+    private final StringWriter objects = new StringWriter();
+    private final JsonStreamVisitor json = new JsonStreamVisitor(objects, true);
 
     @Override
-    public void visit(TaskRecord t) {
-        if (!first) sb.append(',');
-        first = false;
-        sb.append("{\"id\":").append(t.id())
-                .append(",\"title\":").append(q(t.title()))
-                .append(",\"description\":").append(q(t.description()))
-                .append(",\"state\":").append(q(String.valueOf(t.state())))
-                .append('}');
+    public void visit(ITask t) {
+        if (objects.getBuffer().length() > 0) objects.write(',');
+        json.visit(t);
     }
 
-    /** Final JSON string. */
-    public String result() {
-        return sb.append(']').toString();
+    @Override public JsonVisitor split() { return new JsonVisitor(); }
+
+    @Override public void merge(JsonVisitor right) {
+        StringBuffer mine = objects.getBuffer(), theirs = right.objects.getBuffer();
+        if (mine.length() > 0 && theirs.length() > 0) mine.append(',');
+        mine.append(theirs);
     }
 
-    private static String q(String s) {
-        if (s == null) s = "";
-        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    /** Final JSON string. */
+    public String result() {
+        StringBuffer body = objects.getBuffer();
+        return new StringBuilder(body.length() + 2).append('[').append(body).append(']').toString();
     }
 }
@@ -0,0 +1,11 @@
+package il.ac.hit.tasksapp.model.visitor;
+
+/**
+ * A visitor whose work can be split across chunks of the task list and combined afterwards
+ * (see VisitDriver). split() returns an empty visitor with the same settings; merge() appends
+ * the results of a visitor that saw the tasks right after this one's.
+ */
+public interface MergeableVisitor<V extends MergeableVisitor<V>> extends TaskVisitor {
+    V split();
+    void merge(V right);
+}
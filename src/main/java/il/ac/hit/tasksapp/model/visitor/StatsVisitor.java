@@ -1,29 +1,29 @@
 package il.ac.hit.tasksapp.model.visitor;
 
-import il.ac.hit.tasksapp.model.record.TaskRecord;
+import il.ac.hit.tasksapp.model.ITask;
 import il.ac.hit.tasksapp.model.state.TaskState;
 
-import java.util.EnumMap;
-import java.util.Map;
-
 /**
- * Collects state counts using record pattern matching (switch over record).
+ * Collects state counts (plain int counters indexed by state, nothing boxed per task).
+ * Chunks merge by summing the counts.
  */
-public class StatsVisitor implements TaskVisitor {
-    private final Map<TaskState, Integer> counts = new EnumMap<>(TaskState.class);
+public class StatsVisitor implements MergeableVisitor<StatsVisitor> {
+    private final int[] counts = new int[TaskState.values().length];
+
+    @Override public void visit(ITask t) {
+        counts[t.getState().ordinal()]++;
+    }
+
+    @Override public StatsVisitor split() { return new StatsVisitor(); }
 
-    @Override public void visit(TaskRecord t) {
-        switch (t) {
-            case TaskRecord(int id, String title, String desc, TaskState st) -> {
-                counts.merge(st, 1, Integer::sum);
-            }
-        }
+    @Override public void merge(StatsVisitor right) {
+        for (int i = 0; i < counts.length; i++) counts[i] += right.counts[i];
     }
 
     public String result() {
-        int todo = counts.getOrDefault(TaskState.TO_DO, 0);
-        int prog = counts.getOrDefault(TaskState.IN_PROGRESS, 0);
-        int done = counts.getOrDefault(TaskState.COMPLETED, 0);
+        int todo = counts[TaskState.TO_DO.ordinal()];
+        int prog = counts[TaskState.IN_PROGRESS.ordinal()];
+        int done = counts[TaskState.COMPLETED.ordinal()];
         int all  = todo + prog + done;
         return "Total: " + all +
                 "\nTO_DO: " + todo +
@@ -1,8 +1,8 @@
 package il.ac.hit.tasksapp.model.visitor;
 
-import il.ac.hit.tasksapp.model.record.TaskRecord;
+import il.ac.hit.tasksapp.model.ITask;
 
-/** Visitor interface for reports. */
+/** Visitor interface for reports. Fields are read straight from the task (no copy per visit). */
 public interface TaskVisitor {
-    void visit(TaskRecord task);
+    void visit(ITask task);
 }
@@ -0,0 +1,60 @@
+package il.ac.hit.tasksapp.model.visitor;
+
+import il.ac.hit.tasksapp.model.ITask;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs a MergeableVisitor over a task list on the common fork/join pool: the list is halved
+ * until chunks are small, each chunk is visited by a split() of the visitor, and results are
+ * merged left to right, so ordered outputs (CSV/JSON) come out in list order.
+ * The list is copied to an array once up front: chunks read the copy without locking, and a
+ * live view shrinking meanwhile can't push an index out of range.
+ */
+public final class VisitDriver {
+    private VisitDriver() {}
+
+    /** Smallest chunk worth a task of its own. */
+    static final int MIN_CHUNK = 1_024;
+
+    /** Visit every task into {@code root} (sequentially below {@code parallelThreshold}) and return it. */
+    public static <V extends MergeableVisitor<V>> V visit(List<? extends ITask> tasks, V root, int parallelThreshold) {
+        ITask[] rows = tasks.toArray(new ITask[0]);
+        int n = rows.length;
+        if (n < parallelThreshold || n <= MIN_CHUNK) {
+            visitRange(rows, 0, n, root);
+            return root;
+        }
+        int chunk = Math.max(MIN_CHUNK, n / (4 * ForkJoinPool.getCommonPoolParallelism()));
+        return ForkJoinPool.commonPool().invoke(new Chunk<>(rows, 0, n, chunk, root));
+    }
+
+    private static void visitRange(ITask[] tasks, int from, int to, TaskVisitor v) {
+        for (int i = from; i < to; i++) v.visit(tasks[i]);
+    }
+
+    private static final class Chunk<V extends MergeableVisitor<V>> extends RecursiveTask<V> {
+        private final ITask[] tasks;
+        private final int from, to, chunk;
+        private final V into;
+
+        Chunk(ITask[] tasks, int from, int to, int chunk, V into) {
+            this.tasks = tasks; this.from = from; this.to = to; this.chunk = chunk; this.into = into;
+        }
+
+        @Override protected V compute() {
+            if (to - from <= chunk) {
+                visitRange(tasks, from, to, into);
+                return into;
+            }
+            int mid = (from + to) >>> 1;
+            Chunk<V> right = new Chunk<>(tasks, mid, to, chunk, into.split());
+            right.fork();
+            V left = new Chunk<>(tasks, from, mid, chunk, into).compute();
+            left.merge(right.join());
+            return left;
+        }
+    }
+}
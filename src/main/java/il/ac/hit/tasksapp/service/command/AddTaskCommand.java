@@ -16,4 +16,7 @@ public final class AddTaskCommand implements Command {
 
     @Override public void execute() throws TasksDAOException { dao.addTask(task); }
     @Override public void undo() throws TasksDAOException { dao.deleteTask(task.getId()); }
+    @Override public long estimatedBytes() { return HeapSizes.COMMAND + HeapSizes.of(task); }
+
+    ITask task() { return task; }
 }
@@ -0,0 +1,162 @@
+package il.ac.hit.tasksapp.service.command;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.TasksDAOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs commands on one writer thread, group-committing whatever queued up meanwhile:
+ * each batch is applied in a single DAO transaction and every caller's future completes
+ * when its batch commits. If a batch fails, its commands are retried one per transaction,
+ * so a bad command fails only its own future.
+ *
+ * The queue is bounded; submit blocks while it is full. With a CommandManager, committed
+ * commands join its undo history; that manager must then only be used through undo()/redo() here.
+ */
+public final class AsyncCommandExecutor implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH = 128;
+
+    private enum Kind { DO, UNDO, REDO, STOP }
+
+    private record Pending(Kind kind, Command command, CompletableFuture<Void> done) {}
+
+    private static final Pending STOP = new Pending(Kind.STOP, null, null);
+
+    private final ITasksDAO dao;
+    private final CommandManager history;      // null = no undo history
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatch;
+    private final Thread writer;
+    private boolean closed;                    // guarded by this
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+
+    public AsyncCommandExecutor(ITasksDAO dao, CommandManager history) {
+        this(dao, history, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    public AsyncCommandExecutor(ITasksDAO dao, CommandManager history, int capacity, int maxBatch) {
+        if (capacity < 1 || maxBatch < 1) throw new IllegalArgumentException("capacity and batch must be positive");
+        this.dao = dao;
+        this.history = history;
+        this.queue = new ArrayBlockingQueue<>(capacity + 1); // + room for STOP
+        this.maxBatch = maxBatch;
+        this.writer = new Thread(this::drain, "tasks-command-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Queue a command; the future completes once it is committed (or fails with its error). */
+    public CompletableFuture<Void> submit(Command c) throws InterruptedException {
+        return enqueue(Kind.DO, c);
+    }
+
+    /** Undo the newest committed command, after everything queued before it. */
+    public CompletableFuture<Void> undo() throws InterruptedException {
+        return enqueue(Kind.UNDO, null);
+    }
+
+    public CompletableFuture<Void> redo() throws InterruptedException {
+        return enqueue(Kind.REDO, null);
+    }
+
+    /** Transactions run so far (a failed batch's retries count individually). */
+    public long batches() { return batches.get(); }
+    /** Commands committed so far. */
+    public long committed() { return committed.get(); }
+
+    /**
+     * Stop taking work; everything already queued still runs. Waits for the writer; an interrupt
+     * does not cut the wait short (the writer must see STOP) but is re-asserted on return.
+     */
+    @Override public void close() {
+        boolean interrupted = false;
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            while (true) {
+                try { queue.put(STOP); break; } catch (InterruptedException e) { interrupted = true; }
+            }
+        }
+        while (true) {
+            try { writer.join(); break; } catch (InterruptedException e) { interrupted = true; }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /* -------- writer thread -------- */
+
+    private synchronized CompletableFuture<Void> enqueue(Kind kind, Command c) throws InterruptedException {
+        if (closed) throw new IllegalStateException("executor is closed");
+        if (kind != Kind.DO && history == null) throw new IllegalStateException("no undo history");
+        Pending p = new Pending(kind, c, new CompletableFuture<>());
+        queue.put(p);
+        return p.done();
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        List<Pending> run = new ArrayList<>(maxBatch);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatch - 1);
+                for (Pending p : batch) {
+                    if (p.kind() == Kind.DO) { run.add(p); continue; }
+                    // undo/redo and STOP act on everything submitted before them
+                    apply(run);
+                    run.clear();
+                    if (p.kind() == Kind.STOP) return;
+                    step(p);
+                }
+                apply(run);
+                run.clear();
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void apply(List<Pending> run) {
+        if (run.isEmpty()) return;
+        try {
+            batches.incrementAndGet();
+            dao.runInTransaction(() -> {
+                for (Pending p : run) p.command().execute();
+            });
+        } catch (TasksDAOException | RuntimeException e) {
+            if (run.size() == 1) { run.get(0).done().completeExceptionally(e); return; }
+            // rolled back as a whole: find the bad one(s) by going one command per transaction
+            for (Pending p : run) apply(List.of(p));
+            return;
+        }
+        for (Pending p : run) {
+            try {
+                if (history != null) history.record(p.command());
+                committed.incrementAndGet();
+                p.done().complete(null);
+            } catch (TasksDAOException | RuntimeException e) {
+                p.done().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void step(Pending p) {
+        try {
+            if (p.kind() == Kind.UNDO) history.undo();
+            else history.redo();
+            p.done().complete(null);
+        } catch (TasksDAOException | RuntimeException e) {
+            p.done().completeExceptionally(e);
+        }
+    }
+}
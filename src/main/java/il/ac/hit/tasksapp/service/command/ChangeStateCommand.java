@@ -0,0 +1,22 @@
+package il.ac.hit.tasksapp.service.command;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.Task;
+import il.ac.hit.tasksapp.model.TaskField;
+import il.ac.hit.tasksapp.model.state.TaskState;
+
+/** Moves a task to another state (one column). Undo = previous state. */
+public final class ChangeStateCommand extends TaskFieldCommand<TaskState> {
+
+    /** {@code current} is the row as loaded by the caller; no read is made. */
+    public ChangeStateCommand(ITasksDAO dao, ITask current, TaskState state) { super(dao, current, state); }
+
+    public ChangeStateCommand(ITasksDAO dao, int id, TaskState state) { super(dao, id, state); }
+
+    ChangeStateCommand(ITasksDAO dao, int id, TaskState state, TaskState previous) { super(dao, id, state, previous); }
+
+    @Override TaskField field() { return TaskField.STATE; }
+    @Override TaskState get(ITask t) { return t.getState(); }
+    @Override ITask with(ITask t, TaskState v) { return new Task(t.getId(), t.getTitle(), t.getDescription(), v); }
+}
@@ -6,4 +6,7 @@ import il.ac.hit.tasksapp.dao.TasksDAOException;
 public interface Command {
     void execute() throws TasksDAOException;
     void undo() throws TasksDAOException;
+
+    /** Rough heap held by this command (snapshots included); drives the undo history budget. */
+    default long estimatedBytes() { return 32; }
 }
@@ -0,0 +1,192 @@
+package il.ac.hit.tasksapp.service.command;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.Task;
+import il.ac.hit.tasksapp.model.state.TaskState;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of the built-in commands, including the snapshots their undo needs.
+ * Decoded commands act on the DAO given here. Commands of other types are not encodable.
+ *
+ * Layout: 1 tag byte, then the fields; a task is (id int, title UTF, description UTF, state byte),
+ * an optional task is prefixed by a presence byte.
+ */
+public final class CommandCodec {
+
+    private static final byte ADD = 1;
+    private static final byte UPDATE = 2;
+    private static final byte DELETE = 3;
+    private static final byte DELETE_ALL = 4;
+    private static final byte MACRO = 5;
+    private static final byte CHANGE_STATE = 6;
+    private static final byte RENAME = 7;
+    private static final byte EDIT_DESCRIPTION = 8;
+
+    private static final TaskState[] STATES = TaskState.values();
+
+    private final ITasksDAO dao;
+
+    public CommandCodec(ITasksDAO dao) {
+        this.dao = dao;
+    }
+
+    /** The DAO decoded commands act on. */
+    ITasksDAO dao() { return dao; }
+
+    /** True if encode(c) will succeed. */
+    public boolean canEncode(Command c) {
+        if (c instanceof MacroCommand m) return m.steps().stream().allMatch(this::canEncode);
+        return c instanceof AddTaskCommand || c instanceof UpdateTaskCommand
+                || c instanceof DeleteTaskCommand || c instanceof DeleteAllTasksCommand
+                || c instanceof TaskFieldCommand<?>;
+    }
+
+    public byte[] encode(Command c) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(buf)) {
+            write(out, c);
+        }
+        return buf.toByteArray();
+    }
+
+    public Command decode(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return read(in);
+        }
+    }
+
+    /**
+     * A table streamed row by row (CommandJournal's checkpoint): each row as a present optional
+     * task, then an absent one marks the end, so the row count need not be known up front.
+     */
+    static void writeTableRow(DataOutputStream out, ITask t) throws IOException { writeOptionalTask(out, t); }
+
+    static void writeTableEnd(DataOutputStream out) throws IOException { writeOptionalTask(out, null); }
+
+    /** Next row written by writeTableRow, or null at the end. */
+    static ITask readTableRow(DataInputStream in) throws IOException { return readOptionalTask(in); }
+
+    /* -------- internals -------- */
+
+    private void write(DataOutputStream out, Command c) throws IOException {
+        switch (c) {
+            case AddTaskCommand a -> { out.writeByte(ADD); writeTask(out, a.task()); }
+            case UpdateTaskCommand u -> {
+                out.writeByte(UPDATE);
+                writeTask(out, u.newTask());
+                writeOptionalTask(out, u.before());
+            }
+            case DeleteTaskCommand d -> {
+                out.writeByte(DELETE);
+                out.writeInt(d.id());
+                writeOptionalTask(out, d.deleted());
+            }
+            case DeleteAllTasksCommand d -> {
+                out.writeByte(DELETE_ALL);
+                ITask[] ts = d.deleted();
+                out.writeInt(ts == null ? -1 : ts.length);
+                if (ts != null) for (ITask t : ts) writeTask(out, t);
+            }
+            case MacroCommand m -> {
+                out.writeByte(MACRO);
+                out.writeInt(m.steps().size());
+                for (Command step : m.steps()) write(out, step);
+            }
+            case ChangeStateCommand s -> {
+                out.writeByte(CHANGE_STATE);
+                out.writeInt(s.id());
+                out.writeByte(s.value().ordinal());
+                out.writeByte(s.previous() == null ? -1 : s.previous().ordinal());
+            }
+            case RenameTaskCommand r -> {
+                out.writeByte(RENAME);
+                out.writeInt(r.id());
+                out.writeUTF(r.value());
+                writeOptionalString(out, r.previous());
+            }
+            case EditDescriptionCommand d -> {
+                out.writeByte(EDIT_DESCRIPTION);
+                out.writeInt(d.id());
+                out.writeUTF(d.value() == null ? "" : d.value());
+                writeOptionalString(out, d.previous());
+            }
+            default -> throw new IOException("Not encodable: " + c.getClass().getName());
+        }
+    }
+
+    private Command read(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case ADD -> new AddTaskCommand(dao, readTask(in));
+            case UPDATE -> new UpdateTaskCommand(dao, readTask(in), readOptionalTask(in));
+            case DELETE -> new DeleteTaskCommand(dao, in.readInt(), readOptionalTask(in));
+            case DELETE_ALL -> {
+                int n = in.readInt();
+                ITask[] ts = null;
+                if (n >= 0) {
+                    ts = new ITask[n];
+                    for (int i = 0; i < n; i++) ts[i] = readTask(in);
+                }
+                yield new DeleteAllTasksCommand(dao, ts);
+            }
+            case MACRO -> {
+                int n = in.readInt();
+                List<Command> steps = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) steps.add(read(in));
+                yield new MacroCommand(dao, steps);
+            }
+            case CHANGE_STATE -> {
+                int id = in.readInt();
+                TaskState state = readState(in.readByte());
+                byte prev = in.readByte();
+                yield new ChangeStateCommand(dao, id, state, prev < 0 ? null : readState(prev));
+            }
+            case RENAME -> new RenameTaskCommand(dao, in.readInt(), in.readUTF(), readOptionalString(in));
+            case EDIT_DESCRIPTION -> new EditDescriptionCommand(dao, in.readInt(), in.readUTF(), readOptionalString(in));
+            default -> throw new IOException("Unknown command tag " + tag);
+        };
+    }
+
+    private static void writeTask(DataOutputStream out, ITask t) throws IOException {
+        out.writeInt(t.getId());
+        out.writeUTF(t.getTitle());
+        out.writeUTF(t.getDescription() == null ? "" : t.getDescription());
+        out.writeByte(t.getState().ordinal());
+    }
+
+    private static ITask readTask(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        String title = in.readUTF();
+        String description = in.readUTF();
+        return new Task(id, title, description, readState(in.readByte()));
+    }
+
+    private static TaskState readState(byte b) throws IOException {
+        int state = b & 0xFF;
+        if (state >= STATES.length) throw new IOException("Bad task state " + state);
+        return STATES[state];
+    }
+
+    private static void writeOptionalString(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readOptionalString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeOptionalTask(DataOutputStream out, ITask t) throws IOException {
+        out.writeBoolean(t != null);
+        if (t != null) writeTask(out, t);
+    }
+
+    private static ITask readOptionalTask(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readTask(in) : null;
+    }
+}
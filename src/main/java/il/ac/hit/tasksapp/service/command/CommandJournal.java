@@ -0,0 +1,317 @@
+package il.ac.hit.tasksapp.service.command;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.TasksDAOException;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only journal of what a CommandManager did (do / undo / redo), on top of a checkpoint
+ * holding the table and the manager's undo/redo history at that moment. Every checkpointEvery
+ * records (and when the manager closes) a new checkpoint replaces the old one and empties the log.
+ *
+ * The database stays the source of truth for rows: recover() replays the journal onto the
+ * checkpoint in memory and brings back the undo/redo history only if the result matches the table.
+ * If it doesn't (records lost to a crash before fsync, or writes made without the journal), the
+ * history is dropped and a fresh checkpoint starts from the table as it is.
+ *
+ * Record: length int, CRC32 int, then the body (op byte + encoded command for DO).
+ * Checkpoint: the same header, then the table rows, the undo and the redo commands.
+ * A torn or corrupt tail (crash mid-write) is cut off when the journal is opened.
+ * fsync is batched: after syncEvery records, or syncDelayMs after the first unsynced one.
+ */
+public final class CommandJournal implements AutoCloseable {
+
+    public enum Op { DO, UNDO, REDO }
+
+    public static final int DEFAULT_SYNC_EVERY = 32;
+    public static final long DEFAULT_SYNC_DELAY_MS = 100;
+    public static final int DEFAULT_CHECKPOINT_EVERY = 1_024;
+
+    private static final String LOG = "journal.log";
+    private static final String SNAPSHOT = "snapshot.bin";
+    private static final int HEADER = 8;
+
+    private static final Op[] OPS = Op.values();
+
+    /** One decoded journal record. */
+    private record Entry(Op op, byte[] payload) {}
+
+    /** Decoded checkpoint: the table, undo history oldest first, redo history next first. */
+    private record Checkpoint(ITask[] tasks, List<byte[]> undo, List<byte[]> redo) {}
+
+    private final Path dir;
+    private final CommandCodec codec;
+    private final FileChannel log;
+    private final int syncEvery;
+    private final long syncDelayMs;
+    private final int checkpointEvery;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "tasks-journal-sync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private int unsynced;            // guarded by this
+    private boolean syncScheduled;   // guarded by this
+    private int sinceCheckpoint;     // guarded by this
+
+    /** {@code codec} decides the DAO recovered commands act on; checkpoints read the table through it too. */
+    public CommandJournal(Path dir, CommandCodec codec) throws IOException {
+        this(dir, codec, DEFAULT_SYNC_EVERY, DEFAULT_SYNC_DELAY_MS, DEFAULT_CHECKPOINT_EVERY);
+    }
+
+    public CommandJournal(Path dir, CommandCodec codec, int syncEvery, long syncDelayMs, int checkpointEvery)
+            throws IOException {
+        if (syncEvery < 1 || syncDelayMs < 0 || checkpointEvery < 1) throw new IllegalArgumentException("bad journal settings");
+        this.dir = Files.createDirectories(dir);
+        this.codec = codec;
+        this.syncEvery = syncEvery;
+        this.syncDelayMs = syncDelayMs;
+        this.checkpointEvery = checkpointEvery;
+        this.log = FileChannel.open(dir.resolve(LOG),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        sinceCheckpoint = scan().size(); // also drops a torn tail and positions at the end
+    }
+
+    /** Record a step the manager completed. */
+    public synchronized void append(Op op, Command c) throws IOException {
+        byte[] cmd = op == Op.DO ? codec.encode(c) : new byte[0];
+        ByteBuffer body = ByteBuffer.allocate(1 + cmd.length).put((byte) op.ordinal()).put(cmd).flip();
+        ByteBuffer rec = ByteBuffer.allocate(HEADER + body.remaining());
+        rec.putInt(body.remaining()).putInt(crc(body)).put(body).flip();
+        while (rec.hasRemaining()) log.write(rec);
+        sinceCheckpoint++;
+
+        if (++unsynced >= syncEvery) sync();
+        else if (!syncScheduled) {
+            syncScheduled = true;
+            flusher.schedule(this::syncQuietly, syncDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Force everything appended so far to disk. */
+    public synchronized void sync() throws IOException {
+        syncScheduled = false;
+        if (unsynced == 0) return;
+        log.force(false);
+        unsynced = 0;
+    }
+
+    public boolean hasSnapshot() { return Files.exists(dir.resolve(SNAPSHOT)); }
+
+    /** True once checkpointEvery records were appended since the last checkpoint. */
+    synchronized boolean checkpointDue() { return sinceCheckpoint >= checkpointEvery; }
+
+    /**
+     * Write a checkpoint (the table, read through the codec's DAO, plus {@code history}'s undo/redo
+     * stacks) and empty the log. Call it where that history's commands run, between commands.
+     * History older than a command the codec can't encode is not kept (nor redo steps past one).
+     * Everything is streamed into the file: table rows from the DAO cursor, spilled history
+     * straight from the spill file, so neither is held in memory.
+     */
+    public synchronized void checkpoint(CommandManager history) throws IOException, TasksDAOException {
+        Path tmp = dir.resolve(SNAPSHOT + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            // body first, after room for the header (length + CRC, known only at the end)
+            CRC32 crc = new CRC32();
+            ch.position(HEADER);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(ch), crc), 64 * 1024));
+            writeTable(out);
+
+            List<Command> undo = history.undoInMemory();
+            int from = undo.size();
+            while (from > 0 && codec.canEncode(undo.get(from - 1))) from--;
+            // spilled entries are all encodable, and kept only if nothing in memory breaks the chain
+            int spilled = from == 0 ? history.spilledCount() : 0;
+            out.writeInt(spilled + undo.size() - from);
+            if (spilled > 0) history.forEachSpilled(b -> writeEncoded(out, b));
+            for (Command c : undo.subList(from, undo.size())) writeEncoded(out, codec.encode(c));
+
+            List<Command> redo = history.redoHistory();
+            int to = 0;
+            while (to < redo.size() && codec.canEncode(redo.get(to))) to++;
+            out.writeInt(to);
+            for (Command c : redo.subList(0, to)) writeEncoded(out, codec.encode(c));
+            out.flush();
+
+            long len = ch.position() - HEADER;
+            if (len > Integer.MAX_VALUE) throw new IOException("Checkpoint too large");
+            ByteBuffer head = ByteBuffer.allocate(HEADER).putInt((int) len).putInt((int) crc.getValue()).flip();
+            while (head.hasRemaining()) ch.write(head, head.position());
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.truncate(0);
+        log.force(true);
+        unsynced = 0;
+        sinceCheckpoint = 0;
+    }
+
+    /**
+     * Bring back {@code mgr}'s undo/redo history as of the last synced record, without writing to
+     * the DAO: the journal is replayed onto the checkpoint in memory and the history is restored
+     * only if the resulting rows equal the DAO's. Otherwise the history is dropped and a fresh
+     * checkpoint is taken. Call before attaching this journal to {@code mgr}, on an empty manager
+     * whose codec DAO is {@code dao}. Returns the records replayed, or -1 if the history was dropped.
+     */
+    public synchronized int recover(ITasksDAO dao, CommandManager mgr) throws IOException, TasksDAOException {
+        if (mgr.journal() == this) throw new IllegalStateException("recover before attaching the journal");
+        Checkpoint base = readSnapshot();
+        List<Entry> entries = scan();
+
+        ReplayTable table = new ReplayTable(base.tasks());
+        CommandCodec replayCodec = new CommandCodec(table);
+        CommandManager replay = new CommandManager(Integer.MAX_VALUE, Long.MAX_VALUE);
+        boolean matches;
+        try {
+            replay.restore(decodeAll(replayCodec, base.undo()), decodeAll(replayCodec, base.redo()));
+            for (Entry e : entries) {
+                switch (e.op()) {
+                    case DO -> replay.doCommand(replayCodec.decode(e.payload()));
+                    case UNDO -> replay.undo();
+                    case REDO -> replay.redo();
+                }
+            }
+            matches = table.sameRowsAs(dao.getTasks());
+        } catch (TasksDAOException e) {
+            matches = false; // the journal doesn't even apply to its own checkpoint
+        }
+        if (!matches) {
+            checkpoint(mgr);
+            return -1;
+        }
+        // same history, now acting on the real DAO
+        mgr.restore(recode(replayCodec, replay.undoInMemory()), recode(replayCodec, replay.redoHistory()));
+        return entries.size();
+    }
+
+    @Override public synchronized void close() throws IOException {
+        flusher.shutdownNow();
+        sync();
+        log.close();
+    }
+
+    /* -------- internals -------- */
+
+    private void syncQuietly() {
+        try { sync(); } catch (IOException ignore) { /* retried by the next append or close */ }
+    }
+
+    /** Valid records from the start; truncates after the last one and positions there. */
+    private List<Entry> scan() throws IOException {
+        ByteBuffer all = ByteBuffer.allocate((int) log.size());
+        log.position(0);
+        while (all.hasRemaining() && log.read(all) >= 0) { /* read fully */ }
+        all.flip();
+
+        List<Entry> out = new ArrayList<>();
+        int valid = 0;
+        while (all.remaining() >= HEADER) {
+            int len = all.getInt();
+            int crc = all.getInt();
+            if (len < 1 || len > all.remaining()) break;
+            ByteBuffer body = all.slice(all.position(), len);
+            if (crc(body) != crc) break;
+            int op = body.get(0);
+            if (op < 0 || op >= OPS.length) break;
+            byte[] payload = new byte[len - 1];
+            body.get(1, payload);
+            out.add(new Entry(OPS[op], payload));
+            all.position(all.position() + len);
+            valid = all.position();
+        }
+        if (valid < log.size()) log.truncate(valid);
+        log.position(valid);
+        return out;
+    }
+
+    private Checkpoint readSnapshot() throws IOException {
+        Path p = dir.resolve(SNAPSHOT);
+        if (!Files.exists(p)) return new Checkpoint(new ITask[0], List.of(), List.of());
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(p));
+        int len = buf.getInt();
+        int crc = buf.getInt();
+        if (len != buf.remaining() || crc(buf.slice()) != crc) throw new IOException("Corrupt snapshot " + p);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(buf.array(), HEADER, len))) {
+            List<ITask> table = new ArrayList<>();
+            for (ITask t; (t = CommandCodec.readTableRow(in)) != null; ) table.add(t);
+            return new Checkpoint(table.toArray(new ITask[0]), readCommands(in), readCommands(in));
+        }
+    }
+
+    /** The table, streamed from the codec DAO's cursor. */
+    private void writeTable(DataOutputStream out) throws IOException, TasksDAOException {
+        try {
+            codec.dao().forEachTask(TaskFilter.any(), t -> {
+                try {
+                    CommandCodec.writeTableRow(out, t);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        CommandCodec.writeTableEnd(out);
+    }
+
+    private static void writeEncoded(DataOutputStream out, byte[] command) throws IOException {
+        out.writeInt(command.length);
+        out.write(command);
+    }
+
+    private static List<byte[]> readCommands(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<byte[]> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            byte[] b = new byte[in.readInt()];
+            in.readFully(b);
+            out.add(b);
+        }
+        return out;
+    }
+
+    private static List<Command> decodeAll(CommandCodec c, List<byte[]> encoded) throws IOException {
+        List<Command> out = new ArrayList<>(encoded.size());
+        for (byte[] b : encoded) out.add(c.decode(b));
+        return out;
+    }
+
+    /** Re-bind commands decoded with {@code from} to this journal's codec (and so its DAO). */
+    private List<Command> recode(CommandCodec from, List<Command> cs) throws IOException {
+        List<Command> out = new ArrayList<>(cs.size());
+        for (Command c : cs) out.add(codec.decode(from.encode(c)));
+        return out;
+    }
+
+    private static int crc(ByteBuffer b) {
+        CRC32 c = new CRC32();
+        c.update(b.duplicate());
+        return (int) c.getValue();
+    }
+}
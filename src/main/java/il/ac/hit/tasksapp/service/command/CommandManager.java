@@ -2,34 +2,223 @@ package il.ac.hit.tasksapp.service.command;
 
 import il.ac.hit.tasksapp.dao.TasksDAOException;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 
-/** Maintains undo/redo stacks and runs commands. */
-public final class CommandManager {
-    private final Deque<Command> undo = new ArrayDeque<>();
-    private final Deque<Command> redo = new ArrayDeque<>();
+/**
+ * Maintains undo/redo stacks and runs commands.
+ * The in-memory history (undo + redo) is bounded by entry count and estimated bytes. Over budget,
+ * the oldest undo entries are spilled to a disk file (withSpill) and reloaded when undo reaches
+ * them; without a spill file, or for commands the codec cannot encode, they are dropped.
+ * Redo entries are dropped (furthest first) once there is no undo entry left to move out.
+ * With a journal attached, every completed do/undo/redo is appended to it (see CommandJournal),
+ * with a checkpoint every so often and on close().
+ */
+public final class CommandManager implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_ENTRIES = 200;
+    public static final long DEFAULT_MAX_BYTES = 32L << 20;
+
+    /** A command with its size estimate taken when it was pushed. */
+    private record Entry(Command command, long bytes) {
+        Entry(Command c) { this(c, c.estimatedBytes()); }
+    }
+
+    private final Deque<Entry> undo = new ArrayDeque<>();
+    private final Deque<Entry> redo = new ArrayDeque<>();
+    private final int maxEntries;
+    private final long maxBytes;
+    private final CommandCodec codec;          // null = no spilling
+    private final SpilledHistory spilled;      // null = no spilling
+    private CommandJournal journal;            // null = not journaled
+    private long bytes;
+    private long dropped;
+
+    public CommandManager() { this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES); }
+
+    /** Bounded history; entries over budget are dropped. */
+    public CommandManager(int maxEntries, long maxBytes) {
+        this(maxEntries, maxBytes, null, null);
+    }
+
+    private CommandManager(int maxEntries, long maxBytes, CommandCodec codec, SpilledHistory spilled) {
+        if (maxEntries < 1 || maxBytes < 1) throw new IllegalArgumentException("history budget must be positive");
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.codec = codec;
+        this.spilled = spilled;
+    }
+
+    /** Bounded history; entries over budget are spilled to {@code file} (truncated first). */
+    public static CommandManager withSpill(int maxEntries, long maxBytes, CommandCodec codec, Path file)
+            throws IOException {
+        return new CommandManager(maxEntries, maxBytes, codec, new SpilledHistory(codec, file));
+    }
+
+    /** Journal every completed step from now on (null detaches); close() then also closes it. */
+    public void setJournal(CommandJournal journal) { this.journal = journal; }
+
+    CommandJournal journal() { return journal; }
 
     /** Execute and push to undo; clear redo. */
     public void doCommand(Command c) throws TasksDAOException {
         c.execute();
-        undo.push(c);
+        record(c);
+    }
+
+    /** Push a command that was already executed (AsyncCommandExecutor runs its own transactions). */
+    void record(Command c) throws TasksDAOException {
+        push(undo, c);
+        for (Entry e : redo) bytes -= e.bytes();
         redo.clear();
+        trim();
+        journal(CommandJournal.Op.DO, c);
     }
 
-    /** Undo last command (if any). */
+    /** Undo last command (if any); reloads spilled history once the in-memory part is used up. */
     public void undo() throws TasksDAOException {
-        if (undo.isEmpty()) return;
-        Command c = undo.pop();
+        Command c = pop(undo);
+        if (c == null) c = reload();
+        if (c == null) return;
         c.undo();
-        redo.push(c);
+        push(redo, c);
+        trim();
+        journal(CommandJournal.Op.UNDO, c);
     }
 
     /** Redo last undone command (if any). */
     public void redo() throws TasksDAOException {
-        if (redo.isEmpty()) return;
-        Command c = redo.pop();
+        Command c = pop(redo);
+        if (c == null) return;
         c.execute();
-        undo.push(c);
+        push(undo, c);
+        trim();
+        journal(CommandJournal.Op.REDO, c);
+    }
+
+    /** Undo steps available (in memory + spilled). */
+    public int undoDepth() { return undo.size() + (spilled == null ? 0 : spilled.size()); }
+    public int redoDepth() { return redo.size(); }
+    /** Estimated heap held by the in-memory history. */
+    public long estimatedBytes() { return bytes; }
+    /** Entries currently on disk. */
+    public int spilledCount() { return spilled == null ? 0 : spilled.size(); }
+    /** Entries lost to the budget (no longer undoable/redoable). */
+    public long droppedCount() { return dropped; }
+
+    /**
+     * Checkpoint and close the journal (if any), then release the spill file
+     * (the spilled part of the history is gone after this).
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (journal != null) {
+                journal.checkpoint(this);
+                journal.close();
+            }
+        } catch (TasksDAOException e) {
+            throw new IOException("Could not checkpoint the journal", e);
+        } finally {
+            if (spilled != null) spilled.close();
+        }
+    }
+
+    /** In-memory undo history, oldest first (older entries may be spilled: see forEachSpilled). */
+    List<Command> undoInMemory() {
+        List<Command> out = new ArrayList<>(undo.size());
+        for (Iterator<Entry> it = undo.descendingIterator(); it.hasNext(); ) out.add(it.next().command());
+        return out;
+    }
+
+    /** Spilled undo entries, oldest first, streamed from the spill file still encoded. */
+    void forEachSpilled(SpilledHistory.RecordSink sink) throws IOException {
+        if (spilled != null) spilled.forEach(sink);
+    }
+
+    /** Redo history, next-to-redo first. */
+    List<Command> redoHistory() {
+        List<Command> out = new ArrayList<>(redo.size());
+        for (Entry e : redo) out.add(e.command());
+        return out;
+    }
+
+    /** Load history saved by undoInMemory()/redoHistory() into this (empty) manager; nothing is executed. */
+    void restore(List<Command> undoOldestFirst, List<Command> redoNextFirst) {
+        if (!undo.isEmpty() || !redo.isEmpty() || spilledCount() > 0) throw new IllegalStateException("history not empty");
+        for (Command c : undoOldestFirst) push(undo, c);
+        for (int i = redoNextFirst.size() - 1; i >= 0; i--) push(redo, redoNextFirst.get(i));
+        trim();
+    }
+
+    /* -------- internals -------- */
+
+    private void push(Deque<Entry> stack, Command c) {
+        Entry e = new Entry(c);
+        stack.push(e);
+        bytes += e.bytes();
+    }
+
+    private Command pop(Deque<Entry> stack) {
+        Entry e = stack.poll();
+        if (e == null) return null;
+        bytes -= e.bytes();
+        return e.command();
+    }
+
+    private void trim() {
+        while (undo.size() + redo.size() > maxEntries || bytes > maxBytes) {
+            Entry oldest = undo.pollLast();
+            if (oldest != null) {
+                bytes -= oldest.bytes();
+                spillOrDrop(oldest.command());
+            } else {
+                Entry furthest = redo.pollLast();
+                if (furthest == null) return;
+                bytes -= furthest.bytes();
+                dropped++;
+            }
+        }
+    }
+
+    /** Move the oldest in-memory undo entry to disk; if it can't go there, history ends at it. */
+    private void spillOrDrop(Command c) {
+        if (spilled != null && codec.canEncode(c)) {
+            try {
+                spilled.push(c);
+                return;
+            } catch (IOException ignore) {
+                // fall through: drop it
+            }
+        }
+        // everything older was only reachable through c: drop that too
+        dropped += 1 + spilledCount();
+        if (spilled != null) {
+            try { spilled.clear(); } catch (IOException ignore) { /* entries are gone either way */ }
+        }
+    }
+
+    private void journal(CommandJournal.Op op, Command c) throws TasksDAOException {
+        if (journal == null) return;
+        try {
+            journal.append(op, c);
+            if (journal.checkpointDue()) journal.checkpoint(this);
+        } catch (IOException e) {
+            throw new TasksDAOException("Change applied but could not be written to the journal", e);
+        }
+    }
+
+    private Command reload() throws TasksDAOException {
+        if (spilled == null) return null;
+        try {
+            return spilled.pop();
+        } catch (IOException e) {
+            throw new TasksDAOException("Could not read undo history from disk", e);
+        }
     }
 }
@@ -0,0 +1,36 @@
+package il.ac.hit.tasksapp.service.command;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.TasksDAOException;
+import il.ac.hit.tasksapp.model.ITask;
+
+/** Deletes every task. Undo = bulk re-insert of the snapshot, in one transaction. */
+public final class DeleteAllTasksCommand implements Command {
+    private final ITasksDAO dao;
+    private ITask[] deleted;
+
+    public DeleteAllTasksCommand(ITasksDAO dao) {
+        this.dao = dao;
+    }
+
+    /** Restore an already executed command (see CommandCodec). */
+    DeleteAllTasksCommand(ITasksDAO dao, ITask[] deleted) {
+        this(dao);
+        this.deleted = deleted;
+    }
+
+    @Override public void execute() throws TasksDAOException {
+        dao.runInTransaction(() -> {
+            deleted = dao.getTasks();
+            dao.deleteTasks();
+        });
+    }
+
+    @Override public void undo() throws TasksDAOException {
+        if (deleted != null && deleted.length > 0) dao.addTasks(deleted);
+    }
+
+    @Override public long estimatedBytes() { return HeapSizes.COMMAND + HeapSizes.of(deleted); }
+
+    ITask[] deleted() { return deleted; }
+}
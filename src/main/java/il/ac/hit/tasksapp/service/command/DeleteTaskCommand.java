@@ -14,12 +14,28 @@ public final class DeleteTaskCommand implements Command {
         this.dao = dao; this.id = id;
     }
 
+    /** {@code current} is the row as loaded by the caller and becomes the undo snapshot; no read is made. */
+    public DeleteTaskCommand(ITasksDAO dao, ITask current) {
+        this(dao, current.getId(), current);
+    }
+
+    /** Restore an already executed command (see CommandCodec). */
+    DeleteTaskCommand(ITasksDAO dao, int id, ITask deleted) {
+        this(dao, id);
+        this.deleted = deleted;
+    }
+
     @Override public void execute() throws TasksDAOException {
-        deleted = dao.getTask(id);
+        if (deleted == null) deleted = dao.getTask(id); // redo keeps the first snapshot
         dao.deleteTask(id);
     }
 
     @Override public void undo() throws TasksDAOException {
         if (deleted != null) dao.addTask(deleted);
     }
+
+    @Override public long estimatedBytes() { return HeapSizes.COMMAND + HeapSizes.of(deleted); }
+
+    int id() { return id; }
+    ITask deleted() { return deleted; }
 }
@@ -0,0 +1,23 @@
+package il.ac.hit.tasksapp.service.command;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.Task;
+import il.ac.hit.tasksapp.model.TaskField;
+
+/** Changes a task's description (one column). Undo = previous description. */
+public final class EditDescriptionCommand extends TaskFieldCommand<String> {
+
+    /** {@code current} is the row as loaded by the caller; no read is made. */
+    public EditDescriptionCommand(ITasksDAO dao, ITask current, String description) { super(dao, current, description); }
+
+    public EditDescriptionCommand(ITasksDAO dao, int id, String description) { super(dao, id, description); }
+
+    EditDescriptionCommand(ITasksDAO dao, int id, String description, String previous) {
+        super(dao, id, description, previous);
+    }
+
+    @Override TaskField field() { return TaskField.DESCRIPTION; }
+    @Override String get(ITask t) { return t.getDescription(); }
+    @Override ITask with(ITask t, String v) { return new Task(t.getId(), t.getTitle(), v, t.getState()); }
+}
@@ -0,0 +1,29 @@
+package il.ac.hit.tasksapp.service.command;
+
+import il.ac.hit.tasksapp.model.ITask;
+
+/** Rough heap sizes for Command.estimatedBytes(). */
+final class HeapSizes {
+    private HeapSizes() {}
+
+    /** Command object with a few references. */
+    static final long COMMAND = 32;
+
+    /** Task object + its two strings (2 bytes per char, headers included). */
+    static long of(ITask t) {
+        if (t == null) return 0;
+        return 40 + string(t.getTitle()) + string(t.getDescription());
+    }
+
+    static long of(ITask[] ts) {
+        if (ts == null) return 0;
+        long sum = 16 + 4L * ts.length;
+        for (ITask t : ts) sum += of(t);
+        return sum;
+    }
+
+    /** A field value: strings count, enums are shared. */
+    static long ofValue(Object v) { return v instanceof String s ? string(s) : 0; }
+
+    private static long string(String s) { return s == null ? 0 : 40 + 2L * s.length(); }
+}
@@ -0,0 +1,42 @@
+package il.ac.hit.tasksapp.service.command;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.TasksDAOException;
+
+import java.util.List;
+
+/**
+ * Composite command: runs its steps in order inside one DAO transaction, and undoes them
+ * in reverse order inside another. Either every step takes effect or none does.
+ */
+public final class MacroCommand implements Command {
+    private final ITasksDAO dao;
+    private final List<Command> steps;
+
+    public MacroCommand(ITasksDAO dao, List<Command> steps) {
+        this.dao = dao;
+        this.steps = List.copyOf(steps);
+    }
+
+    public MacroCommand(ITasksDAO dao, Command... steps) { this(dao, List.of(steps)); }
+
+    public List<Command> steps() { return steps; }
+
+    @Override public long estimatedBytes() {
+        long sum = HeapSizes.COMMAND;
+        for (Command c : steps) sum += c.estimatedBytes();
+        return sum;
+    }
+
+    @Override public void execute() throws TasksDAOException {
+        dao.runInTransaction(() -> {
+            for (Command c : steps) c.execute();
+        });
+    }
+
+    @Override public void undo() throws TasksDAOException {
+        dao.runInTransaction(() -> {
+            for (int i = steps.size() - 1; i >= 0; i--) steps.get(i).undo();
+        });
+    }
+}
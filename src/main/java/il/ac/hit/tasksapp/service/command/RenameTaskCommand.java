@@ -0,0 +1,21 @@
+package il.ac.hit.tasksapp.service.command;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.Task;
+import il.ac.hit.tasksapp.model.TaskField;
+
+/** Changes a task's title (one column). Undo = previous title. */
+public final class RenameTaskCommand extends TaskFieldCommand<String> {
+
+    /** {@code current} is the row as loaded by the caller; no read is made. */
+    public RenameTaskCommand(ITasksDAO dao, ITask current, String title) { super(dao, current, title); }
+
+    public RenameTaskCommand(ITasksDAO dao, int id, String title) { super(dao, id, title); }
+
+    RenameTaskCommand(ITasksDAO dao, int id, String title, String previous) { super(dao, id, title, previous); }
+
+    @Override TaskField field() { return TaskField.TITLE; }
+    @Override String get(ITask t) { return t.getTitle(); }
+    @Override ITask with(ITask t, String v) { return new Task(t.getId(), v, t.getDescription(), t.getState()); }
+}
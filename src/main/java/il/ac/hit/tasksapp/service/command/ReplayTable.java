@@ -0,0 +1,51 @@
+package il.ac.hit.tasksapp.service.command;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.TasksDAOException;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.record.TaskRecord;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Scratch in-memory table that CommandJournal.recover() replays the journal onto, so the result can
+ * be compared with the real table without writing to it. Not thread-safe; no transactions.
+ */
+final class ReplayTable implements ITasksDAO {
+    private final Map<Integer, ITask> rows = new TreeMap<>();
+
+    ReplayTable(ITask[] initial) {
+        for (ITask t : initial) rows.put(t.getId(), TaskRecord.from(t));
+    }
+
+    @Override public ITask[] getTasks() { return rows.values().toArray(new ITask[0]); }
+    @Override public ITask getTask(int id) { return rows.get(id); }
+
+    @Override
+    public void addTask(ITask task) throws TasksDAOException {
+        if (rows.putIfAbsent(task.getId(), TaskRecord.from(task)) != null) {
+            throw new TasksDAOException("Duplicate id: " + task.getId());
+        }
+    }
+
+    @Override
+    public void updateTask(ITask task) throws TasksDAOException {
+        if (rows.replace(task.getId(), TaskRecord.from(task)) == null) {
+            throw new TasksDAOException("No such id: " + task.getId());
+        }
+    }
+
+    @Override public void deleteTasks() { rows.clear(); }
+    @Override public void deleteTask(int id) { rows.remove(id); }
+
+    /** Same ids with the same title, description and state. */
+    boolean sameRowsAs(ITask[] other) {
+        if (other.length != rows.size()) return false;
+        for (ITask t : other) {
+            ITask mine = rows.get(t.getId());
+            if (mine == null || !TaskRecord.from(t).equals(mine)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,74 @@
+package il.ac.hit.tasksapp.service.command;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * The oldest part of the undo history, on disk: a stack of length-prefixed encoded commands.
+ * Entries are pushed oldest first and popped newest first, so a pop reads the tail record
+ * and truncates the file there; the file never holds more than what is still undoable.
+ */
+final class SpilledHistory implements AutoCloseable {
+    private final CommandCodec codec;
+    private final RandomAccessFile file;
+    /** Start offset of each record, newest on top. */
+    private final Deque<Long> offsets = new ArrayDeque<>();
+
+    SpilledHistory(CommandCodec codec, Path path) throws IOException {
+        this.codec = codec;
+        this.file = new RandomAccessFile(path.toFile(), "rw");
+        file.setLength(0);
+    }
+
+    int size() { return offsets.size(); }
+
+    long fileBytes() throws IOException { return file.length(); }
+
+    /** Append a command newer than everything already spilled. */
+    void push(Command c) throws IOException {
+        byte[] bytes = codec.encode(c);
+        long at = file.length();
+        file.seek(at);
+        file.writeInt(bytes.length);
+        file.write(bytes);
+        offsets.push(at);
+    }
+
+    /** Remove and return the newest spilled command (null if none). */
+    Command pop() throws IOException {
+        if (offsets.isEmpty()) return null;
+        long at = offsets.peek();
+        file.seek(at);
+        byte[] bytes = new byte[file.readInt()];
+        file.readFully(bytes);
+        Command c = codec.decode(bytes);
+        offsets.pop();
+        file.setLength(at);
+        return c;
+    }
+
+    /** Receives spilled records, still encoded. */
+    @FunctionalInterface
+    interface RecordSink { void accept(byte[] encoded) throws IOException; }
+
+    /** Hand every spilled record to {@code sink}, oldest first, one at a time (nothing is decoded or removed). */
+    void forEach(RecordSink sink) throws IOException {
+        for (Iterator<Long> it = offsets.descendingIterator(); it.hasNext(); ) {
+            file.seek(it.next());
+            byte[] bytes = new byte[file.readInt()];
+            file.readFully(bytes);
+            sink.accept(bytes);
+        }
+    }
+
+    void clear() throws IOException {
+        offsets.clear();
+        file.setLength(0);
+    }
+
+    @Override public void close() throws IOException { file.close(); }
+}
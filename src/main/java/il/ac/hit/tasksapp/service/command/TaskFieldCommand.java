@@ -0,0 +1,68 @@
+package il.ac.hit.tasksapp.service.command;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.TasksDAOException;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.TaskField;
+
+import java.util.EnumSet;
+
+/**
+ * Base of the single-field edits. Writes one column; undo writes the old value back.
+ * The before-image is the caller's loaded task (no query) or, given only an id, the DAO's
+ * (cached) row; only the old value is kept for undo, not the whole row.
+ */
+abstract class TaskFieldCommand<V> implements Command {
+    private final ITasksDAO dao;
+    private final int id;
+    private final V value;
+    private V previous;
+    private ITask current;       // caller's row, used by the first execute only
+
+    TaskFieldCommand(ITasksDAO dao, ITask current, V value) {
+        this(dao, current.getId(), value);
+        this.current = current;
+    }
+
+    TaskFieldCommand(ITasksDAO dao, int id, V value) {
+        this.dao = dao; this.id = id; this.value = value;
+    }
+
+    /** Restore an already executed command (see CommandCodec). */
+    TaskFieldCommand(ITasksDAO dao, int id, V value, V previous) {
+        this(dao, id, value);
+        this.previous = previous;
+    }
+
+    abstract TaskField field();
+    abstract V get(ITask t);
+    /** A copy of t with this field set to v. */
+    abstract ITask with(ITask t, V v);
+
+    @Override public void execute() throws TasksDAOException {
+        ITask t = current != null ? current : load();
+        current = null;
+        previous = get(t);
+        write(with(t, value));
+    }
+
+    @Override public void undo() throws TasksDAOException {
+        write(with(load(), previous));
+    }
+
+    @Override public long estimatedBytes() { return HeapSizes.COMMAND + HeapSizes.ofValue(value) + HeapSizes.ofValue(previous); }
+
+    int id() { return id; }
+    V value() { return value; }
+    V previous() { return previous; }
+
+    private ITask load() throws TasksDAOException {
+        ITask t = dao.getTask(id);
+        if (t == null) throw new TasksDAOException("No task with id " + id);
+        return t;
+    }
+
+    private void write(ITask after) throws TasksDAOException {
+        dao.updateTaskFields(after, EnumSet.of(field()));
+    }
+}
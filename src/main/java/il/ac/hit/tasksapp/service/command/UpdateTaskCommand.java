@@ -14,6 +14,12 @@ public final class UpdateTaskCommand implements Command {
         this.dao = dao; this.newTask = newTask;
     }
 
+    /** Restore an already executed command (see CommandCodec). */
+    UpdateTaskCommand(ITasksDAO dao, ITask newTask, ITask before) {
+        this(dao, newTask);
+        this.before = before;
+    }
+
     @Override public void execute() throws TasksDAOException {
         before = dao.getTask(newTask.getId());
         dao.updateTask(newTask);
@@ -22,4 +28,9 @@ public final class UpdateTaskCommand implements Command {
     @Override public void undo() throws TasksDAOException {
         if (before != null) dao.updateTask(before);
     }
+
+    @Override public long estimatedBytes() { return HeapSizes.COMMAND + HeapSizes.of(newTask) + HeapSizes.of(before); }
+
+    ITask newTask() { return newTask; }
+    ITask before() { return before; }
 }
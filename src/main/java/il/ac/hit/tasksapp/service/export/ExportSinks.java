@@ -0,0 +1,53 @@
+package il.ac.hit.tasksapp.service.export;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Buffered UTF-8 writers for exports, optionally gzip-compressed, and plain buffered streams for
+ * binary exports. Closing the writer or stream closes the target.
+ */
+public final class ExportSinks {
+    private ExportSinks() {}
+
+    static final int BUFFER_CHARS = 64 * 1024;
+
+    /** A file; compressed when {@code gzip} (use isGzipName to follow a ".gz" suffix). */
+    public static Writer open(Path file, boolean gzip) throws IOException {
+        return writer(Files.newOutputStream(file), gzip);
+    }
+
+    /** Any NIO channel (file, socket, pipe). */
+    public static Writer open(WritableByteChannel channel, boolean gzip) throws IOException {
+        return writer(Channels.newOutputStream(channel), gzip);
+    }
+
+    /** A file for a binary format (columnar files compress their own columns). */
+    public static OutputStream openBinary(Path file) throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(file), BUFFER_CHARS);
+    }
+
+    public static boolean isGzipName(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".gz");
+    }
+
+    private static Writer writer(OutputStream out, boolean gzip) throws IOException {
+        try {
+            if (gzip) out = new GZIPOutputStream(out, BUFFER_CHARS);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_CHARS);
+    }
+}
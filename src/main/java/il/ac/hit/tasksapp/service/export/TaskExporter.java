@@ -0,0 +1,78 @@
+package il.ac.hit.tasksapp.service.export;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.TasksDAOException;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+import il.ac.hit.tasksapp.model.visitor.ColumnarStreamVisitor;
+import il.ac.hit.tasksapp.model.visitor.CsvStreamVisitor;
+import il.ac.hit.tasksapp.model.visitor.JsonStreamVisitor;
+import il.ac.hit.tasksapp.model.visitor.TaskVisitor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * Exports straight from the DAO cursor (ITasksDAO.forEachTask) through a streaming visitor,
+ * so neither the rows nor the document are held in memory. Rows come in id order.
+ * Meant for a background thread: it reports progress and checks for cancellation as it goes.
+ */
+public final class TaskExporter {
+
+    /** COLUMNAR is binary (ColumnarStreamVisitor) and goes to an OutputStream. */
+    public enum Format { CSV, JSON, COLUMNAR }
+
+    /** Progress is reported every this many rows (and once at the end). */
+    public static final int PROGRESS_EVERY = 1_000;
+
+    private final ITasksDAO dao;
+
+    public TaskExporter(ITasksDAO dao) { this.dao = dao; }
+
+    /**
+     * Write every task matching {@code filter} to {@code out} (flushed, not closed).
+     * Returns the row count; throws CancellationException once {@code cancelled} turns true.
+     */
+    public long export(TaskFilter filter, Format format, Writer out, BooleanSupplier cancelled, LongConsumer progress)
+            throws TasksDAOException, IOException {
+        if (format == Format.COLUMNAR) throw new IllegalArgumentException("columnar export needs an OutputStream");
+        CsvStreamVisitor csv = format == Format.CSV ? new CsvStreamVisitor(out) : null;
+        JsonStreamVisitor json = format == Format.JSON ? new JsonStreamVisitor(out) : null;
+        long rows = run(filter, csv != null ? csv : json, cancelled, progress);
+        if (csv != null) csv.finish(); else json.finish();
+        progress.accept(rows);
+        return rows;
+    }
+
+    /** Same as export(), in the columnar binary format. */
+    public long exportColumnar(TaskFilter filter, OutputStream out, BooleanSupplier cancelled, LongConsumer progress)
+            throws TasksDAOException, IOException {
+        ColumnarStreamVisitor columnar = new ColumnarStreamVisitor(out);
+        long rows = run(filter, columnar, cancelled, progress);
+        columnar.finish();
+        progress.accept(rows);
+        return rows;
+    }
+
+    private long run(TaskFilter filter, TaskVisitor v, BooleanSupplier cancelled, LongConsumer progress)
+            throws TasksDAOException, IOException {
+        long[] rows = {0};
+        boolean[] stopped = {false};
+        try {
+            dao.forEachTask(filter, t -> {
+                if (cancelled.getAsBoolean()) { stopped[0] = true; return false; }
+                v.visit(t);
+                if (++rows[0] % PROGRESS_EVERY == 0) progress.accept(rows[0]);
+                return true;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (stopped[0]) throw new CancellationException("export cancelled after " + rows[0] + " rows");
+        return rows[0];
+    }
+}
@@ -0,0 +1,153 @@
+package il.ac.hit.tasksapp.service.search;
+
+import il.ac.hit.tasksapp.dao.TaskChangeListener;
+import il.ac.hit.tasksapp.dao.TasksDAOException;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.filter.TextTokenizer;
+
+import java.util.*;
+
+/**
+ * In-memory inverted index over task title + description.
+ * - one posting list per term: task id -> term frequency.
+ * - search(): BM25 ranking (OR over the query terms).
+ * - matchAll(): ids containing every query term (fast path for TEXT MATCHES).
+ * Kept current by listening to DAO writes (TaskChangeListener).
+ */
+public final class FullTextIndex implements TaskChangeListener {
+
+    /** BM25 term-frequency saturation. */
+    private static final double K1 = 1.2;
+    /** BM25 length normalization. */
+    private static final double B = 0.75;
+
+    /** term -> (task id -> frequency of term in that task) */
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+    /** task id -> indexed document */
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    /** sum of all document lengths (in terms) */
+    private long totalLength;
+
+    /** One indexed task: the task itself, its distinct terms and its length in terms. */
+    private record Doc(ITask task, Set<String> terms, int length) {}
+
+    /** One ranked result. */
+    public record Hit(ITask task, double score) {}
+
+    /** Drop everything and index the given tasks. */
+    public synchronized void rebuild(ITask[] tasks) {
+        clear();
+        for (ITask t : tasks) index(t);
+    }
+
+    /** Index a task, replacing any previous version with the same id. */
+    public synchronized void put(ITask t) {
+        remove(t.getId());
+        index(t);
+    }
+
+    /** Remove a task from the index (no-op if absent). */
+    public synchronized void remove(int id) {
+        Doc d = docs.remove(id);
+        if (d == null) return;
+        totalLength -= d.length();
+        for (String term : d.terms()) {
+            Map<Integer, Integer> list = postings.get(term);
+            if (list == null) continue;
+            list.remove(id);
+            if (list.isEmpty()) postings.remove(term);
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        docs.clear();
+        totalLength = 0;
+    }
+
+    public synchronized int size() { return docs.size(); }
+
+    /**
+     * Ranked search. Tasks containing at least one query term, best BM25 score first
+     * (ties by id), at most limit results.
+     */
+    public synchronized List<Hit> search(String query, int limit) {
+        if (limit <= 0 || docs.isEmpty()) return List.of();
+        Set<String> terms = new LinkedHashSet<>(TextTokenizer.tokenize(query));
+        double avgLen = (double) totalLength / docs.size();
+
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : terms) {
+            Map<Integer, Integer> list = postings.get(term);
+            if (list == null) continue;
+            double idf = idf(list.size());
+            for (Map.Entry<Integer, Integer> e : list.entrySet()) {
+                int tf = e.getValue();
+                double norm = K1 * (1 - B + B * docs.get(e.getKey()).length() / avgLen);
+                scores.merge(e.getKey(), idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+            }
+        }
+
+        // keep the best `limit` hits in a min-heap (worst on top)
+        Comparator<Hit> better = Comparator.comparingDouble(Hit::score)
+                .thenComparing(h -> h.task().getId(), Comparator.reverseOrder());
+        PriorityQueue<Hit> top = new PriorityQueue<>(better);
+        for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+            top.add(new Hit(docs.get(e.getKey()).task(), e.getValue()));
+            if (top.size() > limit) top.poll();
+        }
+        List<Hit> out = new ArrayList<>(top);
+        out.sort(better.reversed());
+        return out;
+    }
+
+    /** Ids of tasks containing every query term. An empty query matches all tasks. */
+    public synchronized Set<Integer> matchAll(String query) {
+        Set<String> terms = new HashSet<>(TextTokenizer.tokenize(query));
+        if (terms.isEmpty()) return new HashSet<>(docs.keySet());
+
+        List<Map<Integer, Integer>> lists = new ArrayList<>();
+        for (String term : terms) {
+            Map<Integer, Integer> list = postings.get(term);
+            if (list == null) return new HashSet<>();
+            lists.add(list);
+        }
+        // intersect starting from the shortest posting list
+        lists.sort(Comparator.comparingInt(Map::size));
+        Set<Integer> out = new HashSet<>(lists.get(0).keySet());
+        for (int i = 1; i < lists.size() && !out.isEmpty(); i++) {
+            out.retainAll(lists.get(i).keySet());
+        }
+        return out;
+    }
+
+    /* -------- TaskChangeListener -------- */
+
+    @Override public void taskAdded(ITask task) { put(task); }
+    @Override public void taskUpdated(ITask task) { put(task); }
+    @Override public void taskDeleted(int id) { remove(id); }
+    @Override public void tasksCleared() { clear(); }
+    @Override public synchronized void tasksReplaced(Table table) throws TasksDAOException {
+        clear();
+        table.forEach(t -> { index(t); return true; });
+    }
+
+    /* -------- helpers -------- */
+
+    private void index(ITask t) {
+        List<String> terms = TextTokenizer.tokenize(t.getTitle(), t.getDescription());
+        Map<String, Integer> tf = new HashMap<>();
+        for (String term : terms) tf.merge(term, 1, Integer::sum);
+        for (Map.Entry<String, Integer> e : tf.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(t.getId(), e.getValue());
+        }
+        docs.put(t.getId(), new Doc(t, tf.keySet(), terms.size()));
+        totalLength += terms.size();
+    }
+
+    /** BM25 idf, kept positive for very common terms. */
+    private double idf(int docFreq) {
+        int n = docs.size();
+        return Math.log(1 + (n - docFreq + 0.5) / (docFreq + 0.5));
+    }
+}
@@ -0,0 +1,70 @@
+package il.ac.hit.tasksapp.service.strategy;
+
+import il.ac.hit.tasksapp.model.ITask;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-task CollationKey of the title, computed once and reused until the title changes.
+ * Comparing two keys is a plain array compare, unlike Collator.compare which
+ * re-analyzes both strings on every call.
+ * Keys are evicted least recently used beyond a fixed cap (raised to the size of the list being
+ * sorted), so sorting a narrow view keeps the keys of the wide one.
+ */
+final class CollationKeyCache {
+
+    static final int DEFAULT_MAX_KEYS = 262_144;
+
+    private record Entry(String title, CollationKey key) {}
+
+    private final Collator collator;
+    private final int maxKeys;
+    private int limit;
+    private final LinkedHashMap<Integer, Entry> byId = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+            return size() > limit;
+        }
+    };
+
+    CollationKeyCache(Locale locale) { this(locale, DEFAULT_MAX_KEYS); }
+
+    CollationKeyCache(Locale locale, int maxKeys) {
+        this.collator = Collator.getInstance(locale);
+        this.maxKeys = maxKeys;
+        this.limit = maxKeys;
+    }
+
+    /** Title key of a task (null for a null title). */
+    synchronized CollationKey keyOf(ITask t) {
+        String title = t.getTitle();
+        if (title == null) return null;
+        Entry e = byId.get(t.getId());
+        if (e == null || !e.title().equals(title)) {
+            e = new Entry(title, collator.getCollationKey(title));
+            byId.put(t.getId(), e);
+        }
+        return e.key();
+    }
+
+    /** Keys for a whole list, aligned by index. The whole list stays cached even above the cap. */
+    synchronized CollationKey[] keysOf(List<ITask> tasks) {
+        limit = Math.max(maxKeys, tasks.size());
+        CollationKey[] out = new CollationKey[tasks.size()];
+        for (int i = 0; i < out.length; i++) out[i] = keyOf(tasks.get(i));
+        // back down after a list larger than the cap: drop the least recently used
+        Iterator<Integer> eldest = byId.keySet().iterator();
+        for (int n = byId.size(); n > limit; n--) {
+            eldest.next();
+            eldest.remove();
+        }
+        return out;
+    }
+
+    synchronized int size() { return byId.size(); }
+}
@@ -0,0 +1,155 @@
+package il.ac.hit.tasksapp.service.strategy;
+
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.state.TaskState;
+
+import java.text.CollationKey;
+import java.util.*;
+
+/**
+ * Multi-key sort, e.g. state desc, then title asc, then id asc.
+ * Each task's keys are packed once into a single byte-comparable key
+ * (unsigned lexicographic order == requested order), so sorting compares
+ * flat byte arrays instead of walking a chained comparator.
+ *
+ * Encoding per key (inverted byte-wise for descending):
+ * - ID:    4 bytes big-endian with the sign bit flipped.
+ * - STATE: 1 byte, 0 = null, ordinal + 1 otherwise.
+ * - TITLE: collation key bytes with 0x00 escaped as 00 FF, terminated by 00 01 (null title = 00 00).
+ */
+public final class CompositeSort implements SortStrategy {
+
+    public enum Field { ID, TITLE, STATE }
+
+    /** One sort key with its direction. */
+    public record Key(Field field, boolean ascending) {
+        public Key {
+            Objects.requireNonNull(field, "field");
+        }
+        public static Key asc(Field f) { return new Key(f, true); }
+        public static Key desc(Field f) { return new Key(f, false); }
+    }
+
+    private static final Comparator<Packed> BY_BYTES = (a, b) -> Arrays.compareUnsigned(a.key(), b.key());
+
+    private final List<Key> keys;
+    private final boolean needsTitle;
+    private final CollationKeyCache titleKeys = new CollationKeyCache(Locale.getDefault());
+
+    /** A task paired with its packed key. */
+    private record Packed(byte[] key, ITask task) {}
+
+    public CompositeSort(List<Key> keys) {
+        if (keys == null || keys.isEmpty()) throw new IllegalArgumentException("at least one sort key is required");
+        this.keys = List.copyOf(keys);
+        this.needsTitle = this.keys.stream().anyMatch(k -> k.field() == Field.TITLE);
+    }
+
+    public CompositeSort(Key... keys) { this(List.of(keys)); }
+
+    public List<Key> keys() { return keys; }
+
+    @Override public List<ITask> sort(List<ITask> input) {
+        Packed[] a = pack(input);
+        Arrays.sort(a, BY_BYTES);
+        return unwrap(a);
+    }
+
+    @Override public List<ITask> sortParallel(List<ITask> input) {
+        Packed[] a = pack(input);
+        Arrays.parallelSort(a, BY_BYTES);
+        return unwrap(a);
+    }
+
+    @Override public Comparator<ITask> comparator() {
+        return (x, y) -> Arrays.compareUnsigned(packKey(x), packKey(y));
+    }
+
+    /**
+     * Every row's packed key built once up front, so compares are flat byte compares (a windowed
+     * view partitions the same rows many times). Rows not in the list are packed as they come.
+     */
+    @Override public Comparator<ITask> comparatorFor(List<ITask> rows) {
+        Map<ITask, byte[]> packed = new IdentityHashMap<>(rows.size());
+        for (Packed p : pack(rows)) packed.put(p.task(), p.key());
+        return (x, y) -> Arrays.compareUnsigned(packedKey(packed, x), packedKey(packed, y));
+    }
+
+    private byte[] packedKey(Map<ITask, byte[]> packed, ITask t) {
+        byte[] key = packed.get(t);
+        return key != null ? key : packKey(t);
+    }
+
+    /** The packed sort key of one task. */
+    private byte[] packKey(ITask t) {
+        return packKey(t, needsTitle ? titleKeys.keyOf(t) : null);
+    }
+
+    private byte[] packKey(ITask t, CollationKey title) {
+        KeyBuilder out = new KeyBuilder();
+        for (Key k : keys) {
+            int from = out.len;
+            switch (k.field()) {
+                case ID -> {
+                    int v = t.getId() ^ Integer.MIN_VALUE;
+                    out.put(v >>> 24); out.put(v >>> 16); out.put(v >>> 8); out.put(v);
+                }
+                case STATE -> {
+                    TaskState st = t.getState();
+                    out.put(st == null ? 0 : st.ordinal() + 1);
+                }
+                case TITLE -> {
+                    if (title == null) { out.put(0); out.put(0); }
+                    else {
+                        for (byte b : title.toByteArray()) {
+                            out.put(b);
+                            if (b == 0) out.put(0xFF);
+                        }
+                        out.put(0); out.put(1);
+                    }
+                }
+            }
+            if (!k.ascending()) out.invertFrom(from);
+        }
+        return out.toArray();
+    }
+
+    private Packed[] pack(List<ITask> input) {
+        CollationKey[] titles = needsTitle ? titleKeys.keysOf(input) : null;
+        Packed[] a = new Packed[input.size()];
+        for (int i = 0; i < a.length; i++) {
+            ITask t = input.get(i);
+            a[i] = new Packed(packKey(t, titles == null ? null : titles[i]), t);
+        }
+        return a;
+    }
+
+    private static List<ITask> unwrap(Packed[] a) {
+        List<ITask> out = new ArrayList<>(a.length);
+        for (Packed p : a) out.add(p.task());
+        return out;
+    }
+
+    /** Minimal growable byte buffer for building one key. */
+    private static final class KeyBuilder {
+        byte[] buf = new byte[16];
+        int len;
+
+        void put(int b) {
+            if (len == buf.length) buf = Arrays.copyOf(buf, len * 2);
+            buf[len++] = (byte) b;
+        }
+
+        /** Flip every byte written since `from` (descending order for that key). */
+        void invertFrom(int from) {
+            for (int i = from; i < len; i++) buf[i] = (byte) ~buf[i];
+        }
+
+        byte[] toArray() { return Arrays.copyOf(buf, len); }
+    }
+
+    /** Same keys in the same order -> same sort (e.g. as a result-cache key). */
+    @Override public boolean equals(Object o) { return o instanceof CompositeSort c && c.keys.equals(keys); }
+    @Override public int hashCode() { return keys.hashCode(); }
+    @Override public String toString() { return "CompositeSort" + keys; }
+}
@@ -0,0 +1,68 @@
+package il.ac.hit.tasksapp.service.strategy;
+
+import il.ac.hit.tasksapp.model.ITask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Linear-time, stable sort engines over primitive int keys.
+ * Both return a permutation: perm[k] = index (into the keys array) of the k-th smallest key.
+ * Equal keys keep their input order.
+ */
+final class IntKeySorts {
+    private IntKeySorts() {}
+
+    /** Counting sort for keys in [0, range). O(n + range). */
+    static int[] countingSort(int[] keys, int range) {
+        int[] start = new int[range + 1];
+        for (int k : keys) start[k + 1]++;
+        for (int b = 0; b < range; b++) start[b + 1] += start[b];
+        int[] perm = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) perm[start[keys[i]]++] = i;
+        return perm;
+    }
+
+    /** LSD radix sort, 4 passes of 8 bits (signed order). Passes where all keys share the byte are skipped. */
+    static int[] radixSort(int[] keys) {
+        int n = keys.length;
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        if (isSorted(keys)) return perm;
+
+        // flip the sign bit so signed order == unsigned byte order
+        int[] k = new int[n];
+        for (int i = 0; i < n; i++) k[i] = keys[i] ^ Integer.MIN_VALUE;
+
+        int[] kTmp = new int[n];
+        int[] pTmp = new int[n];
+        int[] count = new int[257];
+        for (int shift = 0; shift < 32; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int i = 0; i < n; i++) count[((k[i] >>> shift) & 0xFF) + 1]++;
+            if (count[((k[0] >>> shift) & 0xFF) + 1] == n) continue; // all in one bucket
+            for (int b = 0; b < 256; b++) count[b + 1] += count[b];
+            for (int i = 0; i < n; i++) {
+                int dst = count[(k[i] >>> shift) & 0xFF]++;
+                kTmp[dst] = k[i];
+                pTmp[dst] = perm[i];
+            }
+            int[] t = k; k = kTmp; kTmp = t;
+            t = perm; perm = pTmp; pTmp = t;
+        }
+        return perm;
+    }
+
+    /** Tasks reordered by a permutation from the engines above. */
+    static List<ITask> apply(List<ITask> input, int[] perm) {
+        List<ITask> out = new ArrayList<>(perm.length);
+        for (int i : perm) out.add(input.get(i));
+        return out;
+    }
+
+    private static boolean isSorted(int[] keys) {
+        for (int i = 1; i < keys.length; i++) if (keys[i - 1] > keys[i]) return false;
+        return true;
+    }
+}
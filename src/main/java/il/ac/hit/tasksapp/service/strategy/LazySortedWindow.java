@@ -0,0 +1,184 @@
+package il.ac.hit.tasksapp.service.strategy;
+
+import il.ac.hit.tasksapp.model.ITask;
+
+import java.util.*;
+
+/**
+ * A list that is sorted only where it is looked at.
+ * window(offset, limit) quickselects the two window edges into place and sorts just
+ * the rows in between; every pivot placed on the way is remembered, so later windows
+ * (e.g. while scrolling) only refine the still-unsorted segments.
+ * First window: O(n + k log k) instead of O(n log n).
+ * add/removeById find the row's segment by binary search over the segments' first rows and
+ * keep the other boundaries, so refinement done so far survives single writes.
+ *
+ * The comparator should be a total order (e.g. thenComparingInt(ITask::getId)),
+ * otherwise rows that compare equal come out in unspecified order.
+ */
+public final class LazySortedWindow {
+
+    /** Segments shorter than this are simply sorted instead of partitioned. */
+    private static final int SMALL = 16;
+    /** Row granularity used by get(i). */
+    private static final int PAGE = 64;
+
+    private final Comparator<ITask> order;
+    private final List<ITask> a;
+    /** Rows by id, to find a row's segment by its sort key on removal. */
+    private final Map<Integer, ITask> byId = new HashMap<>();
+    /** boundary(p): every row before p sorts before every row from p on. */
+    private BitSet boundary;
+
+    public LazySortedWindow(List<ITask> items, Comparator<ITask> order) {
+        this.order = order;
+        this.a = new ArrayList<>(items);
+        for (ITask t : a) byId.put(t.getId(), t);
+        boundary = new BitSet(a.size() + 1);
+        boundary.set(0);
+        boundary.set(a.size());
+    }
+
+    public synchronized int size() { return a.size(); }
+
+    /** Rows [offset, offset + limit) of the sorted order (clamped to size). */
+    public synchronized List<ITask> window(int offset, int limit) {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset/limit must be >= 0");
+        int from = Math.min(offset, a.size());
+        int to = (int) Math.min((long) from + limit, a.size());
+        refine(from, to);
+        return new ArrayList<>(a.subList(from, to));
+    }
+
+    /** Row i of the sorted order (sorts the page around it on first access). */
+    public synchronized ITask get(int i) {
+        Objects.checkIndex(i, a.size());
+        if (!boundary.get(i) || !boundary.get(i + 1)) {
+            int from = i - i % PAGE;
+            refine(from, Math.min(from + PAGE, a.size()));
+        }
+        return a.get(i);
+    }
+
+    /**
+     * Add a row next to the segment it sorts into. It becomes its own (final) segment when both
+     * neighbours are known to bracket it; otherwise it joins a neighbour, and only when neither
+     * side is known are those two segments merged.
+     */
+    public synchronized void add(ITask t) {
+        int n = a.size();
+        int k = firstSegmentAfter(t);
+        // the segment before k starts at or before t and the one at k after it; a one-row
+        // segment is its own min and max, so that side is then known to bracket t
+        boolean beforeKnown = k == 0 || boundary.get(k - 1);
+        boolean afterKnown = k == n || boundary.get(k + 1);
+        a.add(k, t);
+        byId.put(t.getId(), t);
+        BitSet next = boundary.get(0, k);
+        if (beforeKnown) next.set(k);
+        if (afterKnown) next.set(k + 1);
+        for (int b = boundary.nextSetBit(k + 1); b >= 0; b = boundary.nextSetBit(b + 1)) next.set(b + 1);
+        boundary = next;
+    }
+
+    /** Remove the row with this id; returns false if absent. Only its segment is scanned. */
+    public synchronized boolean removeById(int id) {
+        ITask t = byId.remove(id);
+        if (t == null) return false;
+        int k = firstSegmentAfter(t);
+        // t is in the segment before k, or (if that segment's first row sorts after it) the one at k
+        int from = k == 0 ? 0 : boundary.previousSetBit(k - 1);
+        int to = k == a.size() ? k : boundary.nextSetBit(k + 1);
+        int i = indexOf(id, from, to);
+        if (i < 0) i = indexOf(id, 0, a.size()); // the row object was changed in place since
+        a.remove(i);
+        BitSet next = boundary.get(0, i);
+        if (boundary.get(i) || boundary.get(i + 1)) next.set(i);
+        for (int b = boundary.nextSetBit(i + 2); b >= 0; b = boundary.nextSetBit(b + 1)) next.set(b - 1);
+        boundary = next;
+        return true;
+    }
+
+    /** Segment boundaries placed so far (how much of the order is known). */
+    synchronized int boundaries() { return boundary.cardinality(); }
+
+    /** Read-only list view; get(i) refines lazily. */
+    public List<ITask> asList() {
+        return new AbstractList<>() {
+            @Override public ITask get(int index) { return LazySortedWindow.this.get(index); }
+            @Override public int size() { return LazySortedWindow.this.size(); }
+        };
+    }
+
+    /* -------- internals -------- */
+
+    /**
+     * Start of the first segment whose first row sorts after t (size() if none). Segments are in
+     * order, so their first rows are too; t belongs in the segment before it or the one at it.
+     */
+    private int firstSegmentAfter(ITask t) {
+        int lo = 0, hi = a.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int seg = boundary.previousSetBit(mid);
+            if (order.compare(a.get(seg), t) <= 0) lo = boundary.nextSetBit(mid + 1);
+            else hi = seg;
+        }
+        return lo;
+    }
+
+    private int indexOf(int id, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (a.get(i).getId() == id) return i;
+        }
+        return -1;
+    }
+
+    /** Make rows [from, to) final. */
+    private void refine(int from, int to) {
+        if (from >= to) return;
+        if (boundary.nextClearBit(from) > to) return; // already final
+        select(from);
+        select(to);
+        // [from, to) is now cut off from the rest; sort each open segment inside it
+        int lo = from;
+        while (lo < to) {
+            int hi = boundary.nextSetBit(lo + 1);
+            if (hi - lo > 1) a.subList(lo, hi).sort(order);
+            lo = hi;
+        }
+        boundary.set(from, to + 1);
+    }
+
+    /** Quickselect until p is a boundary. */
+    private void select(int p) {
+        while (!boundary.get(p)) {
+            int lo = boundary.previousSetBit(p);
+            int hi = boundary.nextSetBit(p);
+            if (hi - lo <= SMALL) {
+                a.subList(lo, hi).sort(order);
+                boundary.set(lo, hi + 1);
+                return;
+            }
+            int q = partition(lo, hi);
+            boundary.set(q);
+            boundary.set(q + 1);
+        }
+    }
+
+    /** Lomuto partition of [lo, hi) around a median-of-three pivot; returns the pivot's final index. */
+    private int partition(int lo, int hi) {
+        int mid = (lo + hi) >>> 1;
+        int last = hi - 1;
+        if (order.compare(a.get(mid), a.get(lo)) < 0) Collections.swap(a, mid, lo);
+        if (order.compare(a.get(last), a.get(lo)) < 0) Collections.swap(a, last, lo);
+        if (order.compare(a.get(mid), a.get(last)) < 0) Collections.swap(a, mid, last);
+        ITask pivot = a.get(last); // median now at the end
+        int store = lo;
+        for (int i = lo; i < last; i++) {
+            if (order.compare(a.get(i), pivot) < 0) Collections.swap(a, i, store++);
+        }
+        Collections.swap(a, store, last);
+        return store;
+    }
+}
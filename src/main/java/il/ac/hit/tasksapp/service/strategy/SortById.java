@@ -4,11 +4,22 @@ import il.ac.hit.tasksapp.model.ITask;
 
 import java.util.*;
 
-/** Sort by numeric id, ascending. */
+/** Sort by numeric id, ascending. LSD radix sort over the raw int ids: O(n), no comparator calls. */
 public final class SortById implements SortStrategy {
+    private static final Comparator<ITask> ORDER = Comparator.comparingInt(ITask::getId);
+
     @Override public List<ITask> sort(List<ITask> input) {
-        List<ITask> out = new ArrayList<>(input);
-        out.sort(Comparator.comparingInt(ITask::getId));
-        return out;
+        int[] keys = new int[input.size()];
+        for (int i = 0; i < keys.length; i++) keys[i] = input.get(i).getId();
+        return IntKeySorts.apply(input, IntKeySorts.radixSort(keys));
     }
+
+    /** Already linear; a parallel merge sort would only be slower. */
+    @Override public List<ITask> sortParallel(List<ITask> input) { return sort(input); }
+
+    @Override public Comparator<ITask> comparator() { return ORDER; }
+
+    /** All instances order the same way, so they are equal (e.g. as a result-cache key). */
+    @Override public boolean equals(Object o) { return o instanceof SortById; }
+    @Override public int hashCode() { return SortById.class.hashCode(); }
 }
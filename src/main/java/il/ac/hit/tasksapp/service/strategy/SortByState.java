@@ -1,14 +1,33 @@
 package il.ac.hit.tasksapp.service.strategy;
 
 import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.state.TaskState;
 
 import java.util.*;
 
-/** Sort by state (enum natural order). */
+/** Sort by state (enum natural order, nulls first). Stable counting sort on the ordinal: O(n). */
 public final class SortByState implements SortStrategy {
+    private static final Comparator<ITask> ORDER =
+            Comparator.comparing(ITask::getState, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /** Bucket 0 = null state, bucket ordinal+1 = that state. */
+    private static final int BUCKETS = TaskState.values().length + 1;
+
     @Override public List<ITask> sort(List<ITask> input) {
-        List<ITask> out = new ArrayList<>(input);
-        out.sort(Comparator.comparing(ITask::getState, Comparator.nullsFirst(Comparator.naturalOrder())));
-        return out;
+        int[] keys = new int[input.size()];
+        for (int i = 0; i < keys.length; i++) {
+            TaskState st = input.get(i).getState();
+            keys[i] = (st == null ? 0 : st.ordinal() + 1);
+        }
+        return IntKeySorts.apply(input, IntKeySorts.countingSort(keys, BUCKETS));
     }
+
+    /** Already linear; a parallel merge sort would only be slower. */
+    @Override public List<ITask> sortParallel(List<ITask> input) { return sort(input); }
+
+    @Override public Comparator<ITask> comparator() { return ORDER; }
+
+    /** All instances order the same way, so they are equal (e.g. as a result-cache key). */
+    @Override public boolean equals(Object o) { return o instanceof SortByState; }
+    @Override public int hashCode() { return SortByState.class.hashCode(); }
 }
@@ -2,15 +2,71 @@ package il.ac.hit.tasksapp.service.strategy;
 
 import il.ac.hit.tasksapp.model.ITask;
 
-import java.text.Collator;
+import java.text.CollationKey;
 import java.util.*;
+import java.util.function.Function;
 
-/** Sort by title using the current locale. */
+/**
+ * Sort by title using the current locale.
+ * Each title's CollationKey is computed once (and kept across refreshes until the title
+ * changes), so the O(n log n) comparisons only compare precomputed keys.
+ */
 public final class SortByTitle implements SortStrategy {
+
+    private static final Comparator<Keyed> BY_KEY =
+            Comparator.comparing(Keyed::key, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final CollationKeyCache keys = new CollationKeyCache(Locale.getDefault());
+
+    /** A task paired with its title key for sorting. */
+    private record Keyed(CollationKey key, ITask task) {}
+
     @Override public List<ITask> sort(List<ITask> input) {
-        List<ITask> out = new ArrayList<>(input);
-        Collator c = Collator.getInstance(Locale.getDefault());
-        out.sort(Comparator.comparing(ITask::getTitle, Comparator.nullsFirst(c)));
+        Keyed[] a = keyed(input);
+        Arrays.sort(a, BY_KEY);
+        return unwrap(a);
+    }
+
+    @Override public List<ITask> sortParallel(List<ITask> input) {
+        Keyed[] a = keyed(input);
+        Arrays.parallelSort(a, BY_KEY);
+        return unwrap(a);
+    }
+
+    @Override public Comparator<ITask> comparator() {
+        return Comparator.comparing(keys::keyOf, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    /**
+     * Keys of these rows looked up once, into a map of their own: comparing them takes no lock
+     * and does not churn the shared LRU (a window over more rows than its cap would evict on
+     * every compare). A row not in the list, or retitled since, goes to the shared cache.
+     */
+    @Override public Comparator<ITask> comparatorFor(List<ITask> rows) {
+        CollationKey[] k = keys.keysOf(rows);
+        Map<ITask, CollationKey> byRow = new IdentityHashMap<>(k.length);
+        for (int i = 0; i < k.length; i++) byRow.put(rows.get(i), k[i]);
+        Function<ITask, CollationKey> keyOf = t -> {
+            CollationKey key = byRow.get(t);
+            return key != null && key.getSourceString().equals(t.getTitle()) ? key : keys.keyOf(t);
+        };
+        return Comparator.comparing(keyOf, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    private Keyed[] keyed(List<ITask> input) {
+        CollationKey[] k = keys.keysOf(input);
+        Keyed[] a = new Keyed[k.length];
+        for (int i = 0; i < a.length; i++) a[i] = new Keyed(k[i], input.get(i));
+        return a;
+    }
+
+    private static List<ITask> unwrap(Keyed[] a) {
+        List<ITask> out = new ArrayList<>(a.length);
+        for (Keyed k : a) out.add(k.task());
         return out;
     }
+
+    /** All instances order the same way, so they are equal (e.g. as a result-cache key). */
+    @Override public boolean equals(Object o) { return o instanceof SortByTitle; }
+    @Override public int hashCode() { return SortByTitle.class.hashCode(); }
 }
@@ -2,9 +2,58 @@ package il.ac.hit.tasksapp.service.strategy;
 
 import il.ac.hit.tasksapp.model.ITask;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 /** Strategy for sorting tasks. Returns a new list. */
 public interface SortStrategy {
     List<ITask> sort(List<ITask> input);
+
+    /** The order sort() produces; lets callers place a single task without re-sorting. */
+    Comparator<ITask> comparator();
+
+    /**
+     * comparator(), prepared for ordering these rows (e.g. a LazySortedWindow over them):
+     * strategies with derived sort keys compute them once here instead of on every compare.
+     * Other rows still compare correctly, just without the head start.
+     */
+    default Comparator<ITask> comparatorFor(List<ITask> rows) {
+        return comparator();
+    }
+
+    /** Same result as sort(), computed with a stable parallel merge sort (for large inputs). */
+    default List<ITask> sortParallel(List<ITask> input) {
+        ITask[] a = input.toArray(new ITask[0]);
+        Arrays.parallelSort(a, comparatorFor(input));
+        return new ArrayList<>(Arrays.asList(a));
+    }
+
+    /**
+     * Rows [offset, offset + limit) of sort(input), without sorting the rest.
+     * Keeps the best offset + limit rows in a bounded max-heap: O(n log k).
+     * Ties keep input order, same as the stable sort().
+     */
+    default List<ITask> sortRange(List<ITask> input, int offset, int limit) {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset/limit must be >= 0");
+        int k = (int) Math.min((long) offset + limit, input.size());
+        if (offset >= k) return new ArrayList<>();
+
+        ITask[] xs = input.toArray(new ITask[0]);
+        Comparator<ITask> order = comparatorFor(input);
+        // worst of the kept rows on top; later input index counts as worse
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k, (i, j) -> {
+            int c = order.compare(xs[j], xs[i]);
+            return c != 0 ? c : Integer.compare(j, i);
+        });
+        for (int i = 0; i < xs.length; i++) {
+            if (heap.size() < k) heap.add(i);
+            else if (order.compare(xs[i], xs[heap.peek()]) < 0) { heap.poll(); heap.add(i); }
+        }
+        ITask[] best = new ITask[k];
+        for (int pos = k - 1; pos >= 0; pos--) best[pos] = xs[heap.poll()];
+        return new ArrayList<>(Arrays.asList(best).subList(offset, k));
+    }
 }
@@ -15,10 +15,11 @@ import java.util.List;
 /**
  * Advanced Filter dialog.
  *
- * Lets the user build a composable filter from three optional conditions:
+ * Lets the user build a composable filter from four optional conditions:
  * 1) TITLE_CONTAINS (+ NOT)
- * 2) STATE_IS (+ NOT)
- * 3) ID_RANGE (from..to) (+ NOT)
+ * 2) TEXT_MATCHES (all words in title/description) (+ NOT)
+ * 3) STATE_IS (+ NOT)
+ * 4) ID_RANGE (from..to) (+ NOT)
  *
  * The active conditions are combined globally with AND / OR.
  * Result is returned as a TaskFilter (Combinator pattern).
@@ -34,6 +35,11 @@ public final class AdvancedFilterDialog extends JDialog {
     private final JTextField titleText = new JTextField(26);
     private final JCheckBox notTitle = new JCheckBox("NOT");
 
+    /* ------- text matches ------- */
+    private final JCheckBox useText = new JCheckBox();
+    private final JTextField textQuery = new JTextField(26);
+    private final JCheckBox notText = new JCheckBox("NOT");
+
     /* ------- state is ------- */
     private final JCheckBox useState = new JCheckBox();
     private final JComboBox<TaskState> stateBox =
@@ -80,6 +86,14 @@ public final class AdvancedFilterDialog extends JDialog {
         g.gridx = 4; g.weightx = 0; add(notTitle, g);
         nextRow(g);
 
+        /* --- row: TEXT_MATCHES (+ NOT) --- */
+        add(new JLabel("When:"), g);
+        g.gridx = 1; add(useText, g);
+        g.gridx = 2; add(new JLabel("TEXT_MATCHES"), g);
+        g.gridx = 3; g.weightx = 1; textQuery.setPreferredSize(new Dimension(320, 26)); add(textQuery, g);
+        g.gridx = 4; g.weightx = 0; add(notText, g);
+        nextRow(g);
+
         /* --- row: STATE_IS (+ NOT) --- */
         add(new JLabel("When:"), g);
         g.gridx = 1; add(useState, g);
@@ -151,6 +165,14 @@ public final class AdvancedFilterDialog extends JDialog {
             parts.add(t);
         }
 
+        if (useText.isSelected()) {
+            String q = textQuery.getText().trim();
+            if (q.isEmpty()) throw new IllegalArgumentException("Text query is empty.");
+            TaskFilter t = TaskFilter.byText(q);
+            if (notText.isSelected()) t = t.not();
+            parts.add(t);
+        }
+
         if (useState.isSelected()) {
             TaskState st = (TaskState) stateBox.getSelectedItem();
             TaskFilter t = TaskFilter.byState(st);
@@ -186,6 +208,7 @@ public final class AdvancedFilterDialog extends JDialog {
     private void clearAll() {
         combineBox.setSelectedIndex(0);
         useTitle.setSelected(false); titleText.setText(""); notTitle.setSelected(false);
+        useText.setSelected(false); textQuery.setText(""); notText.setSelected(false);
         useState.setSelected(false); stateBox.setSelectedIndex(0); notState.setSelected(false);
         useId.setSelected(false); idFrom.setText(""); idTo.setText(""); notId.setSelected(false);
     }
@@ -1,21 +1,37 @@
 package il.ac.hit.tasksapp.view;
 
-import il.ac.hit.tasksapp.dao.TasksDAOException;
+import il.ac.hit.tasksapp.dao.ITasksDAO;
 import il.ac.hit.tasksapp.model.ITask;
 import il.ac.hit.tasksapp.model.Task;
 import il.ac.hit.tasksapp.model.filter.TaskFilter;
 import il.ac.hit.tasksapp.model.state.TaskState;
 import il.ac.hit.tasksapp.service.command.AddTaskCommand;
+import il.ac.hit.tasksapp.service.command.ChangeStateCommand;
 import il.ac.hit.tasksapp.service.command.Command;
+import il.ac.hit.tasksapp.service.command.CommandCodec;
+import il.ac.hit.tasksapp.service.command.CommandJournal;
 import il.ac.hit.tasksapp.service.command.CommandManager;
+import il.ac.hit.tasksapp.service.command.DeleteAllTasksCommand;
 import il.ac.hit.tasksapp.service.command.DeleteTaskCommand;
+import il.ac.hit.tasksapp.service.command.EditDescriptionCommand;
+import il.ac.hit.tasksapp.service.command.RenameTaskCommand;
 import il.ac.hit.tasksapp.service.command.UpdateTaskCommand;
+import il.ac.hit.tasksapp.service.export.ExportSinks;
+import il.ac.hit.tasksapp.service.export.TaskExporter;
+import il.ac.hit.tasksapp.service.strategy.CompositeSort;
 import il.ac.hit.tasksapp.service.strategy.SortById;
 import il.ac.hit.tasksapp.service.strategy.SortByState;
 import il.ac.hit.tasksapp.service.strategy.SortByTitle;
+import il.ac.hit.tasksapp.service.strategy.SortStrategy;
+import il.ac.hit.tasksapp.vm.PageSource;
+import il.ac.hit.tasksapp.vm.StateStats;
+import il.ac.hit.tasksapp.vm.TasksDelta;
 import il.ac.hit.tasksapp.vm.TasksViewModel;
+import il.ac.hit.tasksapp.vm.ViewUpdateBatcher;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.text.AbstractDocument;
@@ -24,8 +40,17 @@ import javax.swing.text.BadLocationException;
 import javax.swing.text.DocumentFilter;
 import java.awt.*;
 import java.io.File;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Main Swing panel (View).
@@ -40,14 +65,24 @@ public class TasksPanel extends JPanel {
     private static final Color FG_INPROG = new Color(170, 120, 0);
     private static final Color FG_DONE   = new Color(0, 130, 60);
 
+    /** Pause in typing before a live filter is evaluated. */
+    private static final int LIVE_DEBOUNCE_MS = 120;
+    private static final String JOURNAL_DIR_PROPERTY = "tasksapp.journal.dir";
+    private static final long SHUTDOWN_WAIT_MS = 2_000;
+
     /* ------------ VM + Commands ------------ */
     private final TasksViewModel vm;
-    private final CommandManager cmdMgr = new CommandManager();
+    private final CommandManager cmdMgr;
 
     /* ------------ Table ------------ */
     private final TasksTableModel tableModel = new TasksTableModel();
+    /** Paged mode: rows are loaded page by page from the VM's lazily sorted window. */
+    private final VirtualTasksTableModel pagedModel;
+    private final JCheckBox pagedView = new JCheckBox("Paged");
     private final JTable table = new JTable(tableModel);
     private final JLabel filterBadge = new JLabel("Filter: ANY");
+    /** Live per-state counts (shown / all), from the VM's counters. */
+    private final JLabel statusBar = new JLabel(" ");
 
     /* ------------ Row 1: task fields ------------ */
     private final JTextField idField = new JTextField(12);
@@ -64,13 +99,29 @@ public class TasksPanel extends JPanel {
     private final JTextField idMinField = new JTextField(8);
     private final JTextField idMaxField = new JTextField(8);
     private final JComboBox<String> logicBox = new JComboBox<>(new String[]{"AND", "OR"});
+    /** Live mode: title / id range edits apply themselves after a short pause in typing. */
+    private final JCheckBox liveFilter = new JCheckBox("Live", true);
+    private final Timer liveDebounce = new Timer(LIVE_DEBOUNCE_MS, e -> applyLiveFilter());
 
     /* ------------ Row 3: tools ------------ */
     private final JComboBox<String> sortBox = new JComboBox<>(new String[]{"ID", "Title", "State"});
+    // one instance each, so per-strategy caches (e.g. title collation keys) survive toggling
+    private final SortStrategy sortById = new SortById();
+    private final SortStrategy sortByTitle = new SortByTitle();
+    private final SortStrategy sortByState = new SortByState();
+    private final JCheckBox sortDesc = new JCheckBox("Desc");
+    private final JComboBox<String> thenBox = new JComboBox<>(new String[]{"None", "ID", "Title", "State"});
+    private final JCheckBox thenDesc = new JCheckBox("Desc");
+    /** Last multi-key strategy, reused while the keys stay the same. */
+    private CompositeSort lastComposite;
 
     /** Build the whole panel. */
     public TasksPanel(TasksViewModel vm) {
         this.vm = vm;
+        this.cmdMgr = newCommandManager(vm);
+        this.pagedModel = new VirtualTasksTableModel(PageSource.of(vm.getDaoForCommands(), vm::getFilter), r -> vm.submit(r::run));
+        attachJournal(System.getProperty(JOURNAL_DIR_PROPERTY));
+        closeHistoryOnExit();
 
         setLayout(new BorderLayout(8, 8));
         setBorder(BorderFactory.createEmptyBorder(10, 12, 12, 12));
@@ -112,27 +163,26 @@ public class TasksPanel extends JPanel {
 
         add(tableArea, BorderLayout.CENTER);
 
+        statusBar.setBorder(BorderFactory.createEmptyBorder(2, 8, 0, 4));
+        add(statusBar, BorderLayout.SOUTH);
+
         // selection -> form
         table.getSelectionModel().addListSelectionListener(this::onSelect);
 
-        // observe VM
-        vm.addListener(evt -> {
-            switch (evt.getPropertyName()) {
-                case "tasks" -> SwingUtilities.invokeLater(() -> {
-                    tableModel.setData(vm.getTasks());
-                    tuneColumns();
-                });
-                case "filter" -> SwingUtilities.invokeLater(() ->
-                        filterBadge.setText("Filter: " + vm.getFilterDescription()));
-            }
-        });
+        // observe VM: one consolidated update per EDT turn
+        new ViewUpdateBatcher(vm, this::applyUpdate);
 
-        // initial data
-        doSafe(() -> {
-            vm.refresh();
-            filterBadge.setText("Filter: " + vm.getFilterDescription());
-            tuneColumns();
-        });
+        // the VM may start paged (-Dtasksapp.paged=true) when the table is too large to load
+        if (vm.isPaged()) {
+            pagedView.setSelected(true);
+            showPaged(true);
+        }
+
+        // initial data (loaded on the VM worker; the "tasks" event fills the table)
+        report(vm.requestRefresh(), null);
+        filterBadge.setText("Filter: " + vm.getFilterDescription());
+        showStats(vm.getStats());
+        tuneColumns();
     }
 
     /* ---------------- Row builders ---------------- */
@@ -202,29 +252,26 @@ public class TasksPanel extends JPanel {
         content.add(descriptionField, g);
         g.gridwidth = 1;
 
-        // Actions
+        // Actions: the form is read on the EDT, the command runs on the VM worker
         addBtn.addActionListener(e -> doSafe(() -> {
             ITask t = readTaskFromForm();
-            cmdMgr.doCommand(new AddTaskCommand(vm.getDaoForCommands(), t));
-            vm.refresh();
-            clearForm();
+            doInBackground(() -> cmdMgr.doCommand(new AddTaskCommand(vm.getDaoForCommands(), t)), this::clearForm);
         }));
 
         updBtn.addActionListener(e -> doSafe(() -> {
             ITask t = readTaskFromForm();
-            cmdMgr.doCommand(new UpdateTaskCommand(vm.getDaoForCommands(), t));
-            vm.refresh();
+            Command update = updateCommand(selectedTask(), t);
+            doInBackground(() -> cmdMgr.doCommand(update), null);
         }));
 
         delBtn.addActionListener(e -> doSafe(() -> {
-            int rowIdx = table.getSelectedRow();
-            if (rowIdx < 0) throw new IllegalArgumentException("Select a row to delete.");
-            int id = (Integer) tableModel.getValueAt(rowIdx, 0);
+            ITask selected = selectedTask();
+            if (selected == null) throw new IllegalArgumentException("Select a row to delete.");
+            int id = selected.getId();
             if (JOptionPane.showConfirmDialog(this, "Delete task ID " + id + "?",
                     "Confirm", JOptionPane.OK_CANCEL_OPTION) == JOptionPane.OK_OPTION) {
-                cmdMgr.doCommand(new DeleteTaskCommand(vm.getDaoForCommands(), id));
-                vm.refresh();
-                clearForm();
+                doInBackground(() -> cmdMgr.doCommand(new DeleteTaskCommand(vm.getDaoForCommands(), selected)),
+                        this::clearForm);
             }
         }));
 
@@ -232,29 +279,8 @@ public class TasksPanel extends JPanel {
             if (JOptionPane.showConfirmDialog(this, "Delete ALL tasks?",
                     "Confirm", JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) return;
 
-            cmdMgr.doCommand(new Command() {
-                private java.util.List<ITask> snapshot;
-
-                @Override public void execute() {
-                    try {
-                        snapshot = java.util.Arrays.asList(vm.getDaoForCommands().getTasks());
-                        vm.getDaoForCommands().deleteTasks();
-                    } catch (TasksDAOException ex) {
-                        throw new RuntimeException(ex);
-                    }
-                }
-                @Override public void undo() {
-                    if (snapshot == null) return;
-                    try {
-                        for (ITask t : snapshot) vm.getDaoForCommands().addTask(t);
-                    } catch (TasksDAOException ex) {
-                        throw new RuntimeException(ex);
-                    }
-                }
-            });
-
-            vm.refresh();
-            clearForm();
+            doInBackground(() -> cmdMgr.doCommand(new DeleteAllTasksCommand(vm.getDaoForCommands())),
+                    this::clearForm);
         }));
 
         clearBtn.addActionListener(e -> clearForm());
@@ -278,18 +304,30 @@ public class TasksPanel extends JPanel {
         JButton clear = new JButton("Clear");
         JButton adv   = new JButton("Advanced…");
 
-        apply.addActionListener(e -> doSafe(() -> vm.setFilter(buildFilterFromUI())));
+        apply.addActionListener(e -> doSafe(() -> report(vm.setFilterAsync(buildFilterFromUI()), null)));
         clear.addActionListener(e -> doSafe(() -> {
             findTitle.setText(""); notTitle.setSelected(false);
             stateFilter.setSelectedIndex(0);
             idMinField.setText(""); idMaxField.setText("");
             logicBox.setSelectedIndex(0);
-            vm.setFilter(TaskFilter.any());
+            report(vm.setFilterAsync(TaskFilter.any()), null);
         }));
+        // live filter: each keystroke restarts the debounce timer; the VM aborts the evaluation
+        // it supersedes and refines the previous result when the new query only narrows it
+        liveDebounce.setRepeats(false);
+        DocumentListener onEdit = new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { restartLiveFilter(); }
+            @Override public void removeUpdate(DocumentEvent e) { restartLiveFilter(); }
+            @Override public void changedUpdate(DocumentEvent e) { restartLiveFilter(); }
+        };
+        findTitle.getDocument().addDocumentListener(onEdit);
+        idMinField.getDocument().addDocumentListener(onEdit);
+        idMaxField.getDocument().addDocumentListener(onEdit);
+
         adv.addActionListener(e -> {
             Window owner = SwingUtilities.getWindowAncestor(TasksPanel.this);
             TaskFilter f = AdvancedFilterDialog.showDialog(owner);
-            if (f != null) doSafe(() -> vm.setFilter(f));
+            if (f != null) report(vm.setFilterAsync(f), null);
         });
 
         java.util.function.BiFunction<String, JComponent, JPanel> pair = (txt, comp) -> {
@@ -334,7 +372,7 @@ public class TasksPanel extends JPanel {
 
         JPanel btns = new JPanel(new FlowLayout(FlowLayout.RIGHT, 6, 0));
         btns.setOpaque(false);
-        btns.add(apply); btns.add(clear); btns.add(adv);
+        btns.add(liveFilter); btns.add(apply); btns.add(clear); btns.add(adv);
         g.gridx = col; content.add(btns, g);
 
         // Enter = Apply
@@ -357,6 +395,14 @@ public class TasksPanel extends JPanel {
         g.gridx = c++; g.gridy = 0; row.add(new JLabel("Sort:"), g);
         sortBox.setPreferredSize(new Dimension(140, 26));
         g.gridx = c++; row.add(sortBox, g);
+        g.gridx = c++; row.add(sortDesc, g);
+        g.gridx = c++; row.add(new JLabel("then:"), g);
+        thenBox.setPreferredSize(new Dimension(110, 26));
+        g.gridx = c++; row.add(thenBox, g);
+        g.gridx = c++; row.add(thenDesc, g);
+        thenDesc.setEnabled(false);
+        g.gridx = c++; row.add(pagedView, g);
+        pagedView.setToolTipText("For very large lists: load only the rows on screen from the database, in id order");
 
         g.gridx = c++; g.weightx = 1; row.add(Box.createHorizontalGlue(), g);
         g.weightx = 0;
@@ -369,24 +415,31 @@ public class TasksPanel extends JPanel {
         right.add(undo); right.add(redo); right.add(export); right.add(stats);
         g.gridx = c; row.add(right, g);
 
-        sortBox.addActionListener(e -> doSafe(() -> vm.setSortStrategy(
-                switch ((String) sortBox.getSelectedItem()) {
-                    case "Title" -> new SortByTitle();
-                    case "State" -> new SortByState();
-                    default      -> new SortById();
-                })));
+        java.awt.event.ActionListener onSort = e -> report(vm.setSortStrategyAsync(buildSortFromUI()), null);
+        sortBox.addActionListener(onSort);
+        sortDesc.addActionListener(onSort);
+        thenBox.addActionListener(onSort);
+        thenDesc.addActionListener(onSort);
+
+        pagedView.addActionListener(e -> {
+            boolean on = pagedView.isSelected();
+            report(vm.submit(() -> vm.setPaged(on)), () -> showPaged(on));
+        });
 
-        undo.addActionListener(e -> doSafe(() -> { cmdMgr.undo(); vm.refresh(); }));
-        redo.addActionListener(e -> doSafe(() -> { cmdMgr.redo(); vm.refresh(); }));
+        // the VM follows DAO writes itself, so no refresh after commands
+        undo.addActionListener(e -> doInBackground(cmdMgr::undo, null));
+        redo.addActionListener(e -> doInBackground(cmdMgr::redo, null));
 
-        // Export menu (CSV / JSON)
+        // Export menu (CSV / JSON / columnar)
         JPopupMenu menu = new JPopupMenu();
         JMenuItem csv = new JMenuItem("CSV");
         JMenuItem json = new JMenuItem("JSON");
-        menu.add(csv); menu.add(json);
+        JMenuItem columnar = new JMenuItem("Columnar (analytics)");
+        menu.add(csv); menu.add(json); menu.add(columnar);
         export.addActionListener(e -> menu.show(export, 0, export.getHeight()));
-        csv.addActionListener(e -> doSafe(() -> save(vm.buildCsvReport(), "tasks.csv")));
-        json.addActionListener(e -> doSafe(() -> save(vm.buildJsonReport(), "tasks.json")));
+        csv.addActionListener(e -> doSafe(() -> save("tasks.csv", TaskExporter.Format.CSV)));
+        json.addActionListener(e -> doSafe(() -> save("tasks.json", TaskExporter.Format.JSON)));
+        columnar.addActionListener(e -> doSafe(() -> save("tasks.tskc", TaskExporter.Format.COLUMNAR)));
 
         // stats popup
         stats.addActionListener(e -> doSafe(() ->
@@ -413,6 +466,45 @@ public class TasksPanel extends JPanel {
         return outer;
     }
 
+    /** Single ascending key -> its dedicated strategy; anything else -> CompositeSort. */
+    private SortStrategy buildSortFromUI() {
+        String primary = (String) sortBox.getSelectedItem();
+        String then = (String) thenBox.getSelectedItem();
+        thenDesc.setEnabled(!"None".equals(then));
+        if ("None".equals(then) && !sortDesc.isSelected()) {
+            return switch (primary) {
+                case "Title" -> sortByTitle;
+                case "State" -> sortByState;
+                default      -> sortById;
+            };
+        }
+        java.util.List<CompositeSort.Key> keys = new java.util.ArrayList<>();
+        keys.add(new CompositeSort.Key(sortField(primary), !sortDesc.isSelected()));
+        if (!"None".equals(then)) keys.add(new CompositeSort.Key(sortField(then), !thenDesc.isSelected()));
+        if (lastComposite == null || !lastComposite.keys().equals(keys)) lastComposite = new CompositeSort(keys);
+        return lastComposite;
+    }
+
+    private static CompositeSort.Field sortField(String label) {
+        return switch (label) {
+            case "Title" -> CompositeSort.Field.TITLE;
+            case "State" -> CompositeSort.Field.STATE;
+            default      -> CompositeSort.Field.ID;
+        };
+    }
+
+    private void restartLiveFilter() {
+        if (liveFilter.isSelected()) liveDebounce.restart();
+    }
+
+    /** Debounce fired: apply the basic controls, skipping a half-typed invalid range. */
+    private void applyLiveFilter() {
+        TaskFilter f;
+        try { f = buildFilterFromUI(); }
+        catch (IllegalArgumentException ex) { return; } // e.g. "from > to" while still typing
+        report(vm.setFilterAsync(f), null);
+    }
+
     /** Build a TaskFilter from the basic controls. */
     private TaskFilter buildFilterFromUI() {
         boolean useAnd = "AND".equals(logicBox.getSelectedItem());
@@ -447,18 +539,102 @@ public class TasksPanel extends JPanel {
         return out;
     }
 
+    /** Undo history bounded in memory; older entries spill to a temp file. */
+    private static CommandManager newCommandManager(TasksViewModel vm) {
+        try {
+            Path file = Files.createTempFile("tasksapp-undo", ".bin");
+            file.toFile().deleteOnExit();
+            return CommandManager.withSpill(CommandManager.DEFAULT_MAX_ENTRIES, CommandManager.DEFAULT_MAX_BYTES,
+                    new CommandCodec(vm.getDaoForCommands()), file);
+        } catch (IOException e) {
+            return new CommandManager(); // no temp dir: still bounded, just without spilling
+        }
+    }
+
+    /** At exit, close the undo history (and its journal) on the worker, after any command still running. */
+    private void closeHistoryOnExit() {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                vm.submit(cmdMgr::close).get(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (Exception ignore) {
+                // exiting anyway; deleteOnExit still removes the spill file
+            }
+        }, "tasks-history-close"));
+    }
+
+    /**
+     * Opt-in durable history (-Dtasksapp.journal.dir=...): undo/redo comes back from an existing
+     * journal if it still matches the table (rows are never rewritten from it); otherwise it starts
+     * over from a checkpoint of the table. Runs on the VM worker, so commands issued meanwhile queue
+     * behind it. The manager checkpoints and closes the journal at exit (closeHistoryOnExit).
+     */
+    private void attachJournal(String dir) {
+        if (dir == null || dir.isBlank()) return;
+        doInBackground(() -> {
+            CommandJournal journal = new CommandJournal(Path.of(dir), new CommandCodec(vm.getDaoForCommands()));
+            if (journal.hasSnapshot()) journal.recover(vm.getDaoForCommands(), cmdMgr);
+            else journal.checkpoint(cmdMgr);
+            cmdMgr.setJournal(journal);
+        }, null);
+    }
+
+    /** Apply a batched ViewModel update (on the EDT). */
+    private void applyUpdate(ViewUpdateBatcher.Update u) {
+        if (u.filter() != null) filterBadge.setText("Filter: " + u.filter());
+        if (u.tasks() != null) {
+            // a paged view holds no rows in memory: refetch the pages on screen
+            if (vm.isPaged()) pagedModel.reset();
+            else tableModel.setData(u.tasks());
+            tuneColumns();
+        }
+        // paged deltas carry no row index; the paged model looks it up
+        for (TasksDelta d : u.deltas()) {
+            if (d.positionless()) pagedModel.apply(d);
+            else tableModel.apply(d);
+        }
+        showStats(u.stats());
+    }
+
+    /** "Showing 12 of 40 | TO_DO 5/20 | ..." (shown / all per state). */
+    private void showStats(StateStats st) {
+        StringBuilder sb = new StringBuilder("Showing ").append(st.visibleTotal()).append(" of ").append(st.total());
+        for (TaskState s : TaskState.values()) {
+            sb.append("  |  ").append(s).append(' ').append(st.visibleCount(s)).append('/').append(st.count(s));
+        }
+        statusBar.setText(sb.toString());
+    }
+
     /** Selection in table -> fill the form. */
     private void onSelect(ListSelectionEvent e) {
         if (e.getValueIsAdjusting()) return;
-        int r = table.getSelectedRow();
-        if (r < 0) return;
-        ITask t = tableModel.getTaskAt(r);
+        ITask t = selectedTask();
+        if (t == null) return;
         idField.setText(String.valueOf(t.getId()));
         titleField.setText(t.getTitle());
         descriptionField.setText(t.getDescription());
         stateBox.setSelectedItem(t.getState());
     }
 
+    /** A one-column edit of the selected row when only one field changed; otherwise a full update. */
+    private Command updateCommand(ITask selected, ITask edited) {
+        ITasksDAO dao = vm.getDaoForCommands();
+        if (selected == null || selected.getId() != edited.getId()) return new UpdateTaskCommand(dao, edited);
+        boolean title = !selected.getTitle().equals(edited.getTitle());
+        boolean desc = !selected.getDescription().equals(edited.getDescription());
+        boolean state = selected.getState() != edited.getState();
+        if (title && !desc && !state) return new RenameTaskCommand(dao, selected, edited.getTitle());
+        if (desc && !title && !state) return new EditDescriptionCommand(dao, selected, edited.getDescription());
+        if (state && !title && !desc) return new ChangeStateCommand(dao, selected, edited.getState());
+        return new UpdateTaskCommand(dao, edited);
+    }
+
+    /** Task in the selected row (null if none, or its page is still loading). */
+    private ITask selectedTask() {
+        int r = table.getSelectedRow();
+        if (r < 0) return null;
+        return table.getModel() == pagedModel ? pagedModel.getTaskAt(r) : tableModel.getTaskAt(r);
+    }
+
     /** Read & validate form -> Task. */
     private ITask readTaskFromForm() {
         String idText = idField.getText().trim();
@@ -484,12 +660,27 @@ public class TasksPanel extends JPanel {
     /** Show error dialog on failure. */
     private void doSafe(Action a) {
         try { a.run(); }
-        catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        catch (Exception ex) { showError(ex); }
     }
     @FunctionalInterface private interface Action { void run() throws Exception; }
 
+    /** Run DAO work on the VM worker (commands run there one at a time, off the EDT). */
+    private void doInBackground(Action work, Runnable onDone) {
+        report(vm.submit(work::run), onDone);
+    }
+
+    /** When background work finishes: onDone (may be null) or an error dialog, on the EDT. */
+    private void report(CompletableFuture<Void> f, Runnable onDone) {
+        f.whenComplete((v, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex == null) { if (onDone != null) onDone.run(); }
+            else showError(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+        }));
+    }
+
+    private void showError(Throwable ex) {
+        JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
     /** Clear form to defaults. */
     private void clearForm() {
         idField.setText("");
@@ -500,6 +691,15 @@ public class TasksPanel extends JPanel {
         idField.requestFocus();
     }
 
+    /** Swap the table between the in-memory model and the paged one. */
+    private void showPaged(boolean on) {
+        // pages come from the database in id order, so the sort controls don't apply
+        for (JComponent sort : new JComponent[]{sortBox, sortDesc, thenBox, thenDesc}) sort.setEnabled(!on);
+        table.setModel(on ? pagedModel : tableModel);
+        if (on) pagedModel.reset();
+        tuneColumns();
+    }
+
     /** Column widths, alignment, and elegant state coloring (foreground only). */
     private void tuneColumns() {
         var cm = table.getColumnModel();
@@ -566,15 +766,54 @@ public class TasksPanel extends JPanel {
         cm.getColumn(3).setCellRenderer(stateRenderer);   // State colored text + centered
     }
 
-    /** Save text to a file via chooser. */
-    private void save(String text, String defaultName) throws Exception {
+    /**
+     * Export the current filter's rows (id order) to a file picked via chooser; text formats are
+     * gzip-compressed for a ".gz" name. Rows stream from the database cursor on a background thread
+     * of its own, with a progress dialog that can cancel; a cancelled or failed export leaves no partial file.
+     */
+    private void save(String defaultName, TaskExporter.Format format) {
         var chooser = new JFileChooser();
         chooser.setSelectedFile(new File(defaultName));
-        if (chooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            Files.writeString(chooser.getSelectedFile().toPath(), text, StandardCharsets.UTF_8);
-            JOptionPane.showMessageDialog(this, "Saved: " + chooser.getSelectedFile().getAbsolutePath(),
-                    "Export", JOptionPane.INFORMATION_MESSAGE);
-        }
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = chooser.getSelectedFile().toPath();
+        TaskFilter filter = vm.getFilter();
+        int expected = Math.max(1, vm.getTaskCount());
+        ProgressMonitor monitor = new ProgressMonitor(this, "Exporting " + file.getFileName(), "", 0, expected);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        TaskExporter exporter = new TaskExporter(vm.getDaoForCommands());
+
+        new SwingWorker<Long, Long>() {
+            @Override protected Long doInBackground() throws Exception {
+                if (format == TaskExporter.Format.COLUMNAR) {
+                    try (OutputStream out = ExportSinks.openBinary(file)) {
+                        return exporter.exportColumnar(filter, out, cancelled::get, this::publish);
+                    }
+                }
+                try (Writer out = ExportSinks.open(file, ExportSinks.isGzipName(file))) {
+                    return exporter.export(filter, format, out, cancelled::get, this::publish);
+                }
+            }
+
+            @Override protected void process(java.util.List<Long> rows) {
+                long n = rows.get(rows.size() - 1);
+                monitor.setProgress((int) Math.min(n, expected));
+                monitor.setNote(n + " rows");
+                if (monitor.isCanceled()) cancelled.set(true);
+            }
+
+            @Override protected void done() {
+                monitor.close();
+                try {
+                    long n = get();
+                    JOptionPane.showMessageDialog(TasksPanel.this, "Saved " + n + " rows: " + file.toAbsolutePath(),
+                            "Export", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    try { Files.deleteIfExists(file); } catch (IOException ignore) { /* best effort */ }
+                    Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                    if (!(cause instanceof CancellationException)) showError(cause);
+                }
+            }
+        }.execute();
     }
 
     /** DocumentFilter: digits only. */
@@ -1,24 +1,144 @@
 package il.ac.hit.tasksapp.view;
 
 import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.vm.TasksDelta;
 
 import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /** Table model for tasks (ID, Title, Description, State). */
 public class TasksTableModel extends AbstractTableModel {
     private final String[] cols = {"ID", "Title", "Description", "State"};
     private final List<ITask> data = new ArrayList<>();
 
+    /** More row-range events than this and a plain "data changed" is cheaper. */
+    private static final int MAX_RANGE_EVENTS = 32;
+
+    /**
+     * Replace the rows, firing only the ranges that changed (matched by task id):
+     * deleted ranges, inserted ranges, and updated rows whose content differs.
+     * Rows that merely changed order are kept along the longest run already in the
+     * new order; the rest are deleted and re-inserted. Selection follows the events,
+     * so it survives as long as the selected row was not moved or removed.
+     */
     public void setData(java.util.List<ITask> tasks) {
-        data.clear();
-        data.addAll(tasks);
-        fireTableDataChanged();
+        int n = data.size();
+        Map<Integer, Integer> newIndex = new HashMap<>(tasks.size() * 2);
+        for (int i = 0; i < tasks.size(); i++) newIndex.put(tasks.get(i).getId(), i);
+
+        int[] pos = new int[n];
+        for (int i = 0; i < n; i++) pos[i] = newIndex.getOrDefault(data.get(i).getId(), -1);
+        boolean[] keep = longestIncreasingRun(pos);
+        boolean[] present = new boolean[tasks.size()];
+        for (int i = 0; i < n; i++) if (keep[i]) present[pos[i]] = true;
+
+        if (gaps(keep) + gaps(present) > MAX_RANGE_EVENTS) {
+            data.clear();
+            data.addAll(tasks);
+            fireTableDataChanged();
+            return;
+        }
+
+        // deletes, bottom-up so earlier indices stay valid
+        for (int hi = n - 1; hi >= 0; hi--) {
+            if (keep[hi]) continue;
+            int lo = hi;
+            while (lo > 0 && !keep[lo - 1]) lo--;
+            data.subList(lo, hi + 1).clear();
+            fireTableRowsDeleted(lo, hi);
+            hi = lo;
+        }
+        // inserts, top-down: every row before an insert point is already in place
+        for (int lo = 0; lo < present.length; lo++) {
+            if (present[lo]) continue;
+            int hi = lo;
+            while (hi + 1 < present.length && !present[hi + 1]) hi++;
+            data.addAll(lo, tasks.subList(lo, hi + 1));
+            fireTableRowsInserted(lo, hi);
+            lo = hi;
+        }
+        // kept rows take the new instances; only those whose content changed are repainted
+        int from = -1;
+        for (int i = 0; i <= data.size(); i++) {
+            boolean changed = i < data.size() && present[i] && !sameContent(data.set(i, tasks.get(i)), tasks.get(i));
+            if (changed) {
+                if (from < 0) from = i;
+            } else if (from >= 0) {
+                fireTableRowsUpdated(from, i - 1);
+                from = -1;
+            }
+        }
+    }
+
+    /** Apply a one-row change and fire only the affected rows. */
+    public void apply(TasksDelta d) {
+        switch (d.kind()) {
+            case INSERTED -> {
+                data.add(d.to(), d.task());
+                fireTableRowsInserted(d.to(), d.to());
+            }
+            case REMOVED -> {
+                data.remove(d.from());
+                fireTableRowsDeleted(d.from(), d.from());
+            }
+            case MOVED -> {
+                if (d.from() == d.to()) {
+                    data.set(d.to(), d.task());
+                    fireTableRowsUpdated(d.to(), d.to());
+                } else {
+                    data.remove(d.from());
+                    fireTableRowsDeleted(d.from(), d.from());
+                    data.add(d.to(), d.task());
+                    fireTableRowsInserted(d.to(), d.to());
+                }
+            }
+        }
     }
 
     public ITask getTaskAt(int row) { return data.get(row); }
 
+    /** keep[i] = pos[i] is part of one longest strictly increasing subsequence (pos -1 never is). O(n log n). */
+    private static boolean[] longestIncreasingRun(int[] pos) {
+        int n = pos.length;
+        int[] tailIdx = new int[n];   // tailIdx[k] = index ending the best run of length k + 1
+        int[] prev = new int[n];
+        int len = 0;
+        for (int i = 0; i < n; i++) {
+            if (pos[i] < 0) continue;
+            int lo = 0, hi = len;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (pos[tailIdx[mid]] < pos[i]) lo = mid + 1; else hi = mid;
+            }
+            prev[i] = lo > 0 ? tailIdx[lo - 1] : -1;
+            tailIdx[lo] = i;
+            if (lo == len) len++;
+        }
+        boolean[] keep = new boolean[n];
+        for (int i = len > 0 ? tailIdx[len - 1] : -1; i >= 0; i = prev[i]) keep[i] = true;
+        return keep;
+    }
+
+    /** Number of maximal runs of false (= row ranges to delete or insert). */
+    private static int gaps(boolean[] xs) {
+        int count = 0;
+        for (int i = 0; i < xs.length; i++) {
+            if (!xs[i] && (i == 0 || xs[i - 1])) count++;
+        }
+        return count;
+    }
+
+    private static boolean sameContent(ITask a, ITask b) {
+        return a == b || (a.getId() == b.getId()
+                && Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && a.getState() == b.getState());
+    }
+
     @Override public int getRowCount() { return data.size(); }
     @Override public int getColumnCount() { return cols.length; }
     @Override public String getColumnName(int c) { return cols[c]; }
@@ -0,0 +1,172 @@
+package il.ac.hit.tasksapp.view;
+
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.vm.PageSource;
+import il.ac.hit.tasksapp.vm.TasksDelta;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Table model for very large lists: it knows only the row count and loads rows page by page
+ * as the table paints them. Pages are fetched on a background executor, kept in a bounded LRU
+ * cache (MAX_PAGES * PAGE_SIZE rows at most), and the neighbours of every page read are
+ * prefetched so scrolling rarely waits. Rows not loaded yet render blank.
+ * A single-row change (apply) becomes one row event at the row's id-order position, so the
+ * selection survives; only pages from that row on are dropped.
+ * Used on the EDT; only the PageSource calls run on the loader.
+ */
+public class VirtualTasksTableModel extends AbstractTableModel {
+
+    public static final int PAGE_SIZE = 256;
+    public static final int MAX_PAGES = 40;
+
+    private final String[] cols = {"ID", "Title", "Description", "State"};
+    private final PageSource source;
+    private final Executor loader;
+
+    private final Map<Integer, List<ITask>> pages = new LinkedHashMap<>(MAX_PAGES * 2, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<Integer, List<ITask>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    /** Pages being fetched, each with the token of its latest load (older completions are dropped). */
+    private final Map<Integer, Object> loading = new HashMap<>();
+    private int rowCount;
+    /** Bumped by reset(); loads started before it are dropped. */
+    private int generation;
+
+    public VirtualTasksTableModel(PageSource source, Executor loader) {
+        this.source = source;
+        this.loader = loader;
+    }
+
+    /** Re-read the row count and drop every cached page (the data or the view changed). */
+    public void reset() {
+        int gen = ++generation;
+        loading.clear();
+        loader.execute(() -> {
+            int n;
+            try { n = source.size(); }
+            catch (Exception e) { return; } // keep showing the old rows
+            SwingUtilities.invokeLater(() -> {
+                if (gen != generation) return;
+                pages.clear();
+                rowCount = n;
+                fireTableDataChanged();
+            });
+        });
+    }
+
+    /**
+     * One task changed (a positionless delta): find its row by id on the loader, then fire a row
+     * event there. The new row count says what happened: one more row is an insert, one fewer a
+     * delete, the same count an update in place (MOVED) or nothing (a task that stays hidden).
+     * A change the delta can't explain (e.g. another write got in first) reloads everything.
+     */
+    public void apply(TasksDelta d) {
+        int gen = generation;
+        loader.execute(() -> {
+            int n, row;
+            try {
+                n = source.size();
+                row = source.rank(d.id());
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> { if (gen == generation) reset(); });
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (gen != generation) return; // a reset is already on its way
+                boolean visible = d.kind() != TasksDelta.Kind.REMOVED;
+                int change = n - rowCount;
+                if (row > n || (change == 1 && !visible) || (change == -1 && visible) || Math.abs(change) > 1
+                        || (change == 0 && d.kind() == TasksDelta.Kind.INSERTED)) {
+                    reset();
+                    return;
+                }
+                int page = row / PAGE_SIZE;
+                if (change == 0) {
+                    if (!visible) return; // was not shown and still isn't
+                    List<ITask> rows = pages.get(page);
+                    int i = row % PAGE_SIZE;
+                    if (rows != null && i < rows.size() && rows.get(i).getId() == d.id()) rows.set(i, d.task());
+                    else pages.remove(page);
+                    fireTableRowsUpdated(row, row);
+                    return;
+                }
+                // rows shift from here on: drop those pages (and any load of them in flight)
+                pages.keySet().removeIf(p -> p >= page);
+                loading.keySet().removeIf(p -> p >= page);
+                rowCount = n;
+                if (change > 0) fireTableRowsInserted(row, row);
+                else fireTableRowsDeleted(row, row);
+            });
+        });
+    }
+
+    /** Task at a row, or null while its page is still loading. */
+    public ITask getTaskAt(int row) {
+        int page = row / PAGE_SIZE;
+        List<ITask> rows = pages.get(page);
+        if (rows == null) load(page);
+        // prefetch the neighbours (no LRU touch for pages already here)
+        if (!pages.containsKey(page + 1)) load(page + 1);
+        if (page > 0 && !pages.containsKey(page - 1)) load(page - 1);
+        int i = row % PAGE_SIZE;
+        return rows == null || i >= rows.size() ? null : rows.get(i);
+    }
+
+    /** Pages held right now, for tests and diagnostics. */
+    int cachedPages() { return pages.size(); }
+
+    private void load(int page) {
+        if ((long) page * PAGE_SIZE >= rowCount || pages.containsKey(page) || loading.containsKey(page)) return;
+        Object token = new Object();
+        loading.put(page, token);
+        int gen = generation;
+        loader.execute(() -> {
+            List<ITask> rows;
+            try { rows = source.page(page * PAGE_SIZE, PAGE_SIZE); }
+            catch (Exception e) { rows = null; }
+            List<ITask> loaded = rows;
+            SwingUtilities.invokeLater(() -> {
+                if (gen != generation || !loading.remove(page, token)) return; // reset, or rows shifted since
+                if (loaded == null) return; // tried again the next time the rows are painted
+                pages.put(page, loaded);
+                int first = page * PAGE_SIZE;
+                int last = Math.min(first + PAGE_SIZE, rowCount) - 1;
+                if (first <= last) fireTableRowsUpdated(first, last);
+            });
+        });
+    }
+
+    @Override public int getRowCount() { return rowCount; }
+    @Override public int getColumnCount() { return cols.length; }
+    @Override public String getColumnName(int c) { return cols[c]; }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        ITask t = getTaskAt(rowIndex);
+        if (t == null) return null;
+        return switch (columnIndex) {
+            case 0 -> t.getId();
+            case 1 -> t.getTitle();
+            case 2 -> t.getDescription();
+            case 3 -> t.getState();
+            default -> null;
+        };
+    }
+
+    @Override public Class<?> getColumnClass(int c) {
+        return switch (c) {
+            case 0 -> Integer.class;
+            case 3 -> Enum.class;
+            default -> String.class;
+        };
+    }
+}
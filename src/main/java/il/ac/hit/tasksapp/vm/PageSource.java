@@ -0,0 +1,42 @@
+package il.ac.hit.tasksapp.vm;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.TasksDAOException;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Rows for a paged (virtual) table, in id order: a total count plus random-access pages.
+ * Calls may hit the database, so callers run them off the EDT.
+ */
+public interface PageSource {
+    int size() throws TasksDAOException;
+
+    /** Rows [offset, offset + limit), fewer at the end. */
+    List<ITask> page(int offset, int limit) throws TasksDAOException;
+
+    /** Rows with an id below {@code id}: the row index a task with that id has (or would have). */
+    int rank(int id) throws TasksDAOException;
+
+    /** Every task in id order, paged by the DAO itself (SQL OFFSET / FETCH for Derby). */
+    static PageSource of(ITasksDAO dao) {
+        return of(dao, TaskFilter::any);
+    }
+
+    /** Tasks matching the current {@code filter}, counted and paged by the DAO (in SQL when it translates). */
+    static PageSource of(ITasksDAO dao, Supplier<TaskFilter> filter) {
+        return new PageSource() {
+            @Override public int size() throws TasksDAOException { return dao.countTasks(filter.get()); }
+            @Override public List<ITask> page(int offset, int limit) throws TasksDAOException {
+                return Arrays.asList(dao.getTasksPage(filter.get(), offset, limit));
+            }
+            @Override public int rank(int id) throws TasksDAOException {
+                return id <= 0 ? 0 : dao.countTasks(filter.get().and(TaskFilter.byIdBetween(0, id - 1)));
+            }
+        };
+    }
+}
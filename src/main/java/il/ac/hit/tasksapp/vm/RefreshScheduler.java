@@ -0,0 +1,127 @@
+package il.ac.hit.tasksapp.vm;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * One background worker for the ViewModel: DAO work and view rebuilds run on it, one at a time.
+ * Refresh requests are coalesced: while one is queued, further requests join it.
+ * A refresh already running is told (via its superseded check) that a newer request exists,
+ * so it can drop its result early; the queued refresh then produces the view.
+ */
+final class RefreshScheduler {
+
+    /** Work that runs on the worker. */
+    @FunctionalInterface interface Refresh {
+        void run(boolean useCache, BooleanSupplier superseded) throws Exception;
+    }
+
+    /** Thrown by a refresh that saw superseded() == true; its result is dropped. */
+    static final class Superseded extends RuntimeException {
+        Superseded() { super(null, null, false, false); }
+    }
+
+    /** A queued refresh; requests arriving before it starts are merged into it. */
+    private static final class Pending {
+        boolean useCache;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        Pending(boolean useCache) { this.useCache = useCache; }
+    }
+
+    private final Refresh refresh;
+    private final ThreadPoolExecutor worker;
+    private volatile Thread workerThread;
+
+    private final Object lock = new Object();
+    /** Bumped by every request; a running refresh compares it with the value it started at. */
+    private volatile long requestSeq;
+    private Pending queued; // guarded by lock
+
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+
+    RefreshScheduler(Refresh refresh) {
+        this.refresh = refresh;
+        // single daemon thread, released after an idle period (tests create many view models)
+        this.worker = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "tasks-vm-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        worker.allowCoreThreadTimeOut(true);
+    }
+
+    boolean onWorker() { return Thread.currentThread() == workerThread; }
+
+    /** Run a job on the worker (inline if already there). */
+    CompletableFuture<Void> submit(TasksViewModel.Job job) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (onWorker()) run(job, done);
+        else worker.execute(() -> { workerThread = Thread.currentThread(); run(job, done); });
+        return done;
+    }
+
+    /** Queue a refresh, or join the one already queued. Completes once a refresh that started after this call is published. */
+    CompletableFuture<Void> request(boolean useCache) {
+        synchronized (lock) {
+            requestSeq++;
+            if (queued != null) {
+                queued.useCache &= useCache;
+                coalesced.incrementAndGet();
+                return queued.done;
+            }
+            Pending p = new Pending(useCache);
+            queued = p;
+            worker.execute(() -> { workerThread = Thread.currentThread(); drain(); });
+            return p.done;
+        }
+    }
+
+    /** Refresh right now on the calling thread (which must be the worker). */
+    void runNow(boolean useCache) throws Exception {
+        synchronized (lock) { requestSeq++; }
+        refresh.run(useCache, () -> false);
+    }
+
+    /** Requests merged into an already queued refresh. */
+    long coalesced() { return coalesced.get(); }
+    /** Refreshes that dropped their result because a newer request arrived. */
+    long superseded() { return superseded.get(); }
+
+    private void drain() {
+        Pending p;
+        long startSeq;
+        synchronized (lock) {
+            p = queued;
+            queued = null;
+            startSeq = requestSeq;
+        }
+        try {
+            refresh.run(p.useCache, () -> requestSeq != startSeq);
+            p.done.complete(null);
+        } catch (Superseded s) {
+            superseded.incrementAndGet();
+            Pending next;
+            synchronized (lock) { next = queued; } // non-null: the newer request queued it
+            if (next == null) p.done.complete(null);
+            else next.done.whenComplete((v, ex) -> {
+                if (ex == null) p.done.complete(null); else p.done.completeExceptionally(ex);
+            });
+        } catch (Throwable ex) {
+            p.done.completeExceptionally(ex);
+        }
+    }
+
+    private static void run(TasksViewModel.Job job, CompletableFuture<Void> done) {
+        try {
+            job.run();
+            done.complete(null);
+        } catch (Throwable ex) {
+            done.completeExceptionally(ex);
+        }
+    }
+}
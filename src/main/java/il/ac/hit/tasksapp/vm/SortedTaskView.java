@@ -0,0 +1,180 @@
+package il.ac.hit.tasksapp.vm;
+
+import il.ac.hit.tasksapp.model.ITask;
+
+import java.util.*;
+
+/**
+ * Sorted, indexable collection of the visible tasks (order-statistic treap).
+ * insert/remove/get(i) are O(log n), so a one-row edit does not depend on table size.
+ * Ties under the given order are broken by id, which matches a stable sort of a by-id list.
+ */
+final class SortedTaskView {
+
+    private static final class Node {
+        final ITask task;
+        final int priority;
+        int size = 1;
+        Node left, right;
+        Node(ITask task, int priority) { this.task = task; this.priority = priority; }
+    }
+
+    private final Random random = new Random();
+    private final Map<Integer, ITask> byId = new HashMap<>();
+    private Comparator<ITask> order;
+    private Node root;
+
+    SortedTaskView(Comparator<ITask> order) {
+        this.order = order.thenComparingInt(ITask::getId);
+    }
+
+    /** Replace content and order. `sorted` must already be in the given order. O(n). */
+    void reset(List<ITask> sorted, Comparator<ITask> order) {
+        this.order = order.thenComparingInt(ITask::getId);
+        byId.clear();
+        for (ITask t : sorted) byId.put(t.getId(), t);
+        root = build(sorted, 0, sorted.size());
+    }
+
+    void clear() {
+        byId.clear();
+        root = null;
+    }
+
+    int size() { return size(root); }
+
+    /** The version of a task currently in the view, or null. */
+    ITask byId(int id) { return byId.get(id); }
+
+    /** Task at sorted position i. */
+    ITask get(int i) {
+        Objects.checkIndex(i, size());
+        Node n = root;
+        while (true) {
+            int ls = size(n.left);
+            if (i < ls) n = n.left;
+            else if (i == ls) return n.task;
+            else { i -= ls + 1; n = n.right; }
+        }
+    }
+
+    /** Insert a task (its id must not be in the view); returns its position. */
+    int insert(ITask t) {
+        int pos = rank(t);
+        root = insert(root, t, random.nextInt());
+        byId.put(t.getId(), t);
+        return pos;
+    }
+
+    /** Remove the view's current version of this id; returns its former position or -1. */
+    int remove(int id) {
+        ITask t = byId.remove(id);
+        if (t == null) return -1;
+        int pos = rank(t);
+        root = remove(root, t);
+        return pos;
+    }
+
+    /** Read-only live list view (get is O(log n)). */
+    List<ITask> asList() {
+        return new AbstractList<>() {
+            @Override public ITask get(int index) { return SortedTaskView.this.get(index); }
+            @Override public int size() { return SortedTaskView.this.size(); }
+        };
+    }
+
+    /** In-order snapshot. O(n). */
+    List<ITask> toList() {
+        List<ITask> out = new ArrayList<>(size());
+        Deque<Node> stack = new ArrayDeque<>();
+        Node n = root;
+        while (n != null || !stack.isEmpty()) {
+            while (n != null) { stack.push(n); n = n.left; }
+            n = stack.pop();
+            out.add(n.task);
+            n = n.right;
+        }
+        return out;
+    }
+
+    /* -------- treap internals -------- */
+
+    private static int size(Node n) { return n == null ? 0 : n.size; }
+
+    private static Node fix(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+        return n;
+    }
+
+    /** Number of tasks strictly before t. */
+    private int rank(ITask t) {
+        int r = 0;
+        Node n = root;
+        while (n != null) {
+            if (order.compare(t, n.task) <= 0) n = n.left;
+            else { r += size(n.left) + 1; n = n.right; }
+        }
+        return r;
+    }
+
+    /** Balanced build; priorities are lifted so every parent outranks its children. */
+    private Node build(List<ITask> xs, int from, int to) {
+        if (from >= to) return null;
+        int mid = (from + to) >>> 1;
+        Node left = build(xs, from, mid);
+        Node right = build(xs, mid + 1, to);
+        int p = random.nextInt();
+        if (left != null) p = Math.max(p, left.priority);
+        if (right != null) p = Math.max(p, right.priority);
+        Node n = new Node(xs.get(mid), p);
+        n.left = left;
+        n.right = right;
+        return fix(n);
+    }
+
+    private Node insert(Node n, ITask t, int priority) {
+        if (n == null) return new Node(t, priority);
+        if (order.compare(t, n.task) < 0) {
+            n.left = insert(n.left, t, priority);
+            if (n.left.priority > n.priority) return rotateRight(n);
+        } else {
+            n.right = insert(n.right, t, priority);
+            if (n.right.priority > n.priority) return rotateLeft(n);
+        }
+        return fix(n);
+    }
+
+    private Node remove(Node n, ITask t) {
+        if (n == null) return null;
+        int c = order.compare(t, n.task);
+        if (c < 0) n.left = remove(n.left, t);
+        else if (c > 0) n.right = remove(n.right, t);
+        else return merge(n.left, n.right);
+        return fix(n);
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            return fix(a);
+        }
+        b.left = merge(a, b.left);
+        return fix(b);
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = fix(n);
+        return fix(l);
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = fix(n);
+        return fix(r);
+    }
+}
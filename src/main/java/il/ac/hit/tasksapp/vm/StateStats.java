@@ -0,0 +1,37 @@
+package il.ac.hit.tasksapp.vm;
+
+import il.ac.hit.tasksapp.model.state.TaskState;
+
+/**
+ * Per-state task counts at one moment: all stored tasks, and the ones the current filter shows.
+ * An immutable snapshot (see TasksViewModel.getStats()).
+ */
+public final class StateStats {
+    private final int[] all;
+    private final int[] visible;
+
+    StateStats(int[] all, int[] visible) {
+        this.all = all.clone();
+        this.visible = visible.clone();
+    }
+
+    public int count(TaskState s) { return all[s.ordinal()]; }
+    public int visibleCount(TaskState s) { return visible[s.ordinal()]; }
+
+    public int total() { return sum(all); }
+    public int visibleTotal() { return sum(visible); }
+
+    private static int sum(int[] a) {
+        int n = 0;
+        for (int v : a) n += v;
+        return n;
+    }
+
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder("StateStats{");
+        for (TaskState s : TaskState.values()) {
+            sb.append(s).append('=').append(visibleCount(s)).append('/').append(count(s)).append(' ');
+        }
+        return sb.append("shown/all}").toString();
+    }
+}
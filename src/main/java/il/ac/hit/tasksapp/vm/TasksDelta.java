@@ -0,0 +1,27 @@
+package il.ac.hit.tasksapp.vm;
+
+import il.ac.hit.tasksapp.model.ITask;
+
+/**
+ * One-row change of the visible list (payload of the "tasksDelta" event).
+ * - INSERTED: task now at `to`.
+ * - REMOVED:  row `from` is gone (task = the removed version).
+ * - MOVED:    row `from` was removed and task re-inserted at `to` (from == to for an in-place update).
+ * In paged mode (TasksViewModel.setPaged) the VM holds no rows: from and to are -1 (the view finds
+ * the position by id) and a deleted task's REMOVED delta has only the id. Nor does it know whether
+ * an updated task was visible before: MOVED means "changed and visible now" (maybe newly) and
+ * REMOVED "not visible now" (maybe never was); the view tells them apart by the row count.
+ */
+public record TasksDelta(Kind kind, int from, int to, ITask task, int id) {
+
+    public enum Kind { INSERTED, REMOVED, MOVED }
+
+    static TasksDelta inserted(int to, ITask t) { return new TasksDelta(Kind.INSERTED, -1, to, t, t.getId()); }
+    static TasksDelta removed(int from, ITask t) { return new TasksDelta(Kind.REMOVED, from, -1, t, t.getId()); }
+    static TasksDelta moved(int from, int to, ITask t) { return new TasksDelta(Kind.MOVED, from, to, t, t.getId()); }
+    static TasksDelta unplaced(Kind kind, ITask t) { return new TasksDelta(kind, -1, -1, t, t.getId()); }
+    static TasksDelta removedId(int id) { return new TasksDelta(Kind.REMOVED, -1, -1, null, id); }
+
+    /** True for paged-mode deltas, whose position is not known. */
+    public boolean positionless() { return from < 0 && to < 0; }
+}
@@ -2,39 +2,125 @@ package il.ac.hit.tasksapp.vm;
 
 import il.ac.hit.tasksapp.dao.CachingTasksDAOProxy;
 import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.ObservableTasksDAOProxy;
+import il.ac.hit.tasksapp.dao.TaskChangeListener;
 import il.ac.hit.tasksapp.dao.TasksDAOException;
 import il.ac.hit.tasksapp.dao.TasksDAOImpl;
 import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.aggregate.Aggregate;
+import il.ac.hit.tasksapp.model.aggregate.AggregateQuery;
+import il.ac.hit.tasksapp.model.aggregate.AggregateRow;
+import il.ac.hit.tasksapp.model.aggregate.GroupKey;
+import il.ac.hit.tasksapp.model.filter.FilterRefinement;
 import il.ac.hit.tasksapp.model.filter.TaskFilter;
-import il.ac.hit.tasksapp.model.record.TaskRecord;
+import il.ac.hit.tasksapp.model.state.TaskState;
 import il.ac.hit.tasksapp.model.visitor.CsvVisitor;
 import il.ac.hit.tasksapp.model.visitor.JsonVisitor;
-import il.ac.hit.tasksapp.model.visitor.StatsVisitor;
+import il.ac.hit.tasksapp.model.visitor.VisitDriver;
+import il.ac.hit.tasksapp.service.search.FullTextIndex;
+import il.ac.hit.tasksapp.service.strategy.CompositeSort;
+import il.ac.hit.tasksapp.service.strategy.LazySortedWindow;
 import il.ac.hit.tasksapp.service.strategy.SortById;
 import il.ac.hit.tasksapp.service.strategy.SortStrategy;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * ViewModel: holds the visible tasks list, current sort strategy, and current filter.
- * Fires "tasks" whenever the visible list changes, and "filter" when the filter text changes.
+ * Fires "tasks" (snapshot list) when the visible list is rebuilt, "tasksDelta" (TasksDelta)
+ * when a single DAO write moves one row, and "filter" when the filter text changes.
+ *
+ * Threading: fetch, filter and sort run on a single background worker (see RefreshScheduler);
+ * events are fired from that worker (or from whichever thread wrote to the DAO), so Swing
+ * listeners hand them over with invokeLater. The *Async methods return at once; the plain
+ * ones wait for the published result.
  */
 public class TasksViewModel {
 
+    /**
+     * Lists at least this long are filtered and sorted in parallel.
+     * Override with -Dtasksapp.parallel.threshold=N (see RefreshPipelineBenchmark for tuning).
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = Integer.getInteger("tasksapp.parallel.threshold", 50_000);
+
+    /** Background work (e.g. a command) submitted to the worker. */
+    @FunctionalInterface public interface Job { void run() throws Exception; }
+
     private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
     private final ITasksDAO dao;
+    private final CachingTasksDAOProxy cache;
+    /** Kept current by ViewMaintainer, under the state lock (empty in paged mode). */
+    private final FullTextIndex textIndex = new FullTextIndex();
+    private final RefreshScheduler scheduler = new RefreshScheduler(this::rebuild);
 
-    private List<ITask> tasks = List.of();
+    /** Guards the view state below; never held during DAO reads or sorting. */
+    private final Object state = new Object();
+    private final SortedTaskView view;
     private SortStrategy sort = new SortById();
     private TaskFilter filter = TaskFilter.any();
+    private volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    /** Windowed mode only: filtered rows, sorted lazily where they are read (else null). */
+    private LazySortedWindow window;
+    /** Paged mode: rows, the text index and per-task states stay in the database; counts are queried. */
+    private boolean paged;
+    /** Paged mode: a recount is queued on the worker (writes meanwhile share it). */
+    private final AtomicBoolean recountQueued = new AtomicBoolean();
+
+    /** Recent (filter, sort) results; valid only while dataVersion is unchanged. */
+    private final ViewResultCache resultCache = new ViewResultCache(8);
+    /** Bumped by every DAO write. */
+    private long dataVersion;
+    /** Last fully sorted result published (null in windowed mode); a narrower filter refines it. */
+    private Published published;
+    private final AtomicLong refinements = new AtomicLong();
+
+    /** Per-state counts of all tasks and of the visible ones, kept current by ViewMaintainer. */
+    private final int[] allCounts = new int[STATES.length];
+    private final int[] visibleCounts = new int[STATES.length];
+    /** State of every stored task: an update or delete event does not say what it replaced (empty when paged). */
+    private final Map<Integer, TaskState> stateById = new HashMap<>();
+
+    private static final TaskState[] STATES = TaskState.values();
+
+    /** Rows published for (filter, sort) at a data version. */
+    private record Published(TaskFilter filter, SortStrategy sort, long version, List<ITask> rows) {}
 
+    /** Over the Derby DAO; starts in paged mode with -Dtasksapp.paged=true (tables too large to load). */
     public TasksViewModel() throws TasksDAOException {
-        // Wrap the singleton DAO with the Proxy so caching is active at runtime.
-        this.dao = new CachingTasksDAOProxy(TasksDAOImpl.getInstance());
+        this(TasksDAOImpl.getInstance(), Boolean.getBoolean("tasksapp.paged"));
+    }
+
+    /** Build over any backing DAO (tests pass an in-memory one). */
+    public TasksViewModel(ITasksDAO backing) throws TasksDAOException {
+        this(backing, false);
+    }
+
+    /** With {@code paged}, no row is read up front (see setPaged). */
+    public TasksViewModel(ITasksDAO backing, boolean paged) throws TasksDAOException {
+        // Wrap the DAO with the Proxies: caching for reads, observation for writes.
+        this.cache = new CachingTasksDAOProxy(backing);
+        ObservableTasksDAOProxy observable = new ObservableTasksDAOProxy(cache);
+        this.dao = observable;
+        this.view = new SortedTaskView(sort.comparator());
+        this.paged = true; // holds nothing yet; loadStored leaves paged mode with the table loaded
+        observable.addListener(new ViewMaintainer());
+        if (!paged) loadStored(true);
         refresh();
         pcs.firePropertyChange("filter", null, getFilterDescription());
     }
@@ -42,49 +128,549 @@ public class TasksViewModel {
     public void addListener(PropertyChangeListener l) { pcs.addPropertyChangeListener(l); }
     public void removeListener(PropertyChangeListener l) { pcs.removePropertyChangeListener(l); }
 
-    public List<ITask> getTasks() { return Collections.unmodifiableList(tasks); }
-    public String getFilterDescription() { return filter.describe(); }
-    public SortStrategy getSortStrategy() { return sort; }
+    /**
+     * Read-only snapshot of the visible tasks, in sort order (windowed mode: a lazily sorted view;
+     * paged mode: empty, the rows are read from the database through a PageSource).
+     */
+    public List<ITask> getTasks() {
+        synchronized (state) { return window != null ? window.asList() : view.toList(); }
+    }
+    /** Number of visible tasks. */
+    public int getTaskCount() {
+        synchronized (state) {
+            if (paged) return Arrays.stream(visibleCounts).sum();
+            return window != null ? window.size() : view.size();
+        }
+    }
+    /** Per-state counts, all and visible: O(1), maintained as tasks change. */
+    public StateStats getStats() {
+        synchronized (state) { return new StateStats(allCounts, visibleCounts); }
+    }
+    public TaskFilter getFilter() { synchronized (state) { return filter; } }
+    public String getFilterDescription() { synchronized (state) { return filter.describe(); } }
+    public SortStrategy getSortStrategy() { synchronized (state) { return sort; } }
     public ITasksDAO getDaoForCommands() { return dao; }
+    public int getParallelThreshold() { return parallelThreshold; }
+
+    public boolean isWindowed() { synchronized (state) { return window != null; } }
+    public boolean isPaged() { synchronized (state) { return paged; } }
+
+    /**
+     * Windowed mode: refresh filters but does not sort; rows are put in order only when read
+     * (getTasksWindow / getTasks().get), so the first screen of a huge view costs ~O(n + k log k).
+     * Single writes no longer produce row deltas in this mode, only a new "tasks" list.
+     */
+    public void setWindowed(boolean on) throws TasksDAOException {
+        if (on) setPaged(false);
+        synchronized (state) {
+            if (on == (window != null)) return;
+            window = on ? new LazySortedWindow(List.of(), totalOrder(sort, List.of())) : null;
+        }
+        refresh();
+    }
+
+    /**
+     * Paged mode, for tables too large to hold: the VM keeps nothing per task. No rows (the DAO
+     * cache is dropped too), no text index and no per-task state; the state counts come from a
+     * GROUP BY in the database. Views read rows in id order straight from the DAO through
+     * {@code PageSource.of(getDaoForCommands(), this::getFilter)}; the sort strategy does not
+     * apply and searchRanked finds nothing. Single writes fire "tasksDelta" without positions
+     * (see TasksDelta). Leaving paged mode loads the table again.
+     */
+    public void setPaged(boolean on) throws TasksDAOException {
+        synchronized (state) {
+            if (on == paged) return;
+        }
+        if (on) {
+            synchronized (state) {
+                paged = true;
+                window = null;
+                view.clear();
+                published = null;
+                stateById.clear();
+                textIndex.clear();
+                resultCache.pruneOlderThan(Long.MAX_VALUE);
+            }
+            cache.clear();
+        } else {
+            loadStored(true);
+        }
+        refresh();
+    }
+
+    /**
+     * Text index and per-task states from the whole table: when leaving paged mode
+     * ({@code fromPaged}, which ends it), or again after a bulk change (on the worker).
+     * A write landing during the read went to the old state, so the table is read again.
+     */
+    private void loadStored(boolean fromPaged) throws TasksDAOException {
+        while (true) {
+            long version;
+            synchronized (state) {
+                if (paged != fromPaged) return;
+                version = dataVersion;
+            }
+            ITask[] all = dao.getTasks();
+            synchronized (state) {
+                if (paged != fromPaged) return;
+                if (dataVersion != version) continue;
+                textIndex.rebuild(all);
+                recountAll(all);
+                paged = false;
+                return;
+            }
+        }
+    }
+
+    /** Rows [offset, offset + limit) of the visible list, in sort order. */
+    public List<ITask> getTasksWindow(int offset, int limit) {
+        LazySortedWindow w;
+        synchronized (state) {
+            w = window;
+            if (w == null) {
+                int to = (int) Math.min((long) offset + limit, view.size());
+                List<ITask> out = new ArrayList<>();
+                for (int i = offset; i < to; i++) out.add(view.get(i));
+                return out;
+            }
+        }
+        return w.window(offset, limit); // sorts on demand; the window locks itself
+    }
+
+    /** Minimum list size for the parallel filter/sort path (Integer.MAX_VALUE = always sequential). */
+    public void setParallelThreshold(int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException("threshold must be >= 1");
+        this.parallelThreshold = threshold;
+    }
+
+    /* -------- background work -------- */
+
+    /** Run DAO work (e.g. a command) on the worker; writes reach the view through the usual events. */
+    public CompletableFuture<Void> submit(Job job) { return scheduler.submit(job); }
+
+    /** Queue a re-read / re-filter / re-sort; bursts of requests collapse into one refresh. */
+    public CompletableFuture<Void> requestRefresh() { return scheduler.request(false); }
 
+    public CompletableFuture<Void> setSortStrategyAsync(SortStrategy s) {
+        synchronized (state) { this.sort = (s == null ? new SortById() : s); }
+        return scheduler.request(true);
+    }
+
+    public CompletableFuture<Void> setFilterAsync(TaskFilter f) {
+        synchronized (state) { this.filter = (f == null ? TaskFilter.any() : f); }
+        pcs.firePropertyChange("filter", null, getFilterDescription());
+        return scheduler.request(true);
+    }
+
+    /** Re-read, re-filter and re-sort the visible list; returns once it is published. */
     public void refresh() throws TasksDAOException {
-        var raw = Arrays.asList(dao.getTasks());
-        var filtered = raw.stream().filter(filter::test).toList();
-        this.tasks = sort.sort(filtered);
-        pcs.firePropertyChange("tasks", null, this.tasks);
+        if (scheduler.onWorker()) runNow(false);
+        else await(requestRefresh());
     }
 
     public void setSortStrategy(SortStrategy s) throws TasksDAOException {
-        this.sort = (s == null ? new SortById() : s);
-        refresh();
+        await(setSortStrategyAsync(s));
+    }
+
+    /** Multi-key sort, e.g. setSortKeys(List.of(Key.desc(STATE), Key.asc(TITLE))). */
+    public void setSortKeys(List<CompositeSort.Key> keys) throws TasksDAOException {
+        setSortStrategy(new CompositeSort(keys));
     }
 
     public void setFilter(TaskFilter f) throws TasksDAOException {
-        this.filter = (f == null ? TaskFilter.any() : f);
-        pcs.firePropertyChange("filter", null, getFilterDescription());
-        refresh();
+        await(setFilterAsync(f));
     }
 
-    public void add(ITask t) throws TasksDAOException { dao.addTask(t); refresh(); }
-    public void update(ITask t) throws TasksDAOException { dao.updateTask(t); refresh(); }
-    public void delete(int id) throws TasksDAOException { dao.deleteTask(id); refresh(); }
+    /* Writes: the view follows through ViewMaintainer, no refresh needed. */
+    public void add(ITask t) throws TasksDAOException { dao.addTask(t); }
+    public void update(ITask t) throws TasksDAOException { dao.updateTask(t); }
+    public void delete(int id) throws TasksDAOException { dao.deleteTask(id); }
+
+    /** Result cache, exposed for tests and diagnostics. */
+    ViewResultCache resultCache() { return resultCache; }
 
-    /** Reports via Visitor (records + pattern matching in visitors). */
+    /** Refresh scheduler, exposed for tests and diagnostics. */
+    RefreshScheduler scheduler() { return scheduler; }
+
+    /** Rebuilds answered by re-filtering the previous result, for tests and diagnostics. */
+    long refinements() { return refinements.get(); }
+
+    /** Full-text search over title + description, best BM25 match first (ignores the current filter). */
+    public List<ITask> searchRanked(String query, int limit) {
+        return textIndex.search(query, limit).stream().map(FullTextIndex.Hit::task).toList();
+    }
+
+    /** Reports via Visitor (tasks visited in place, no per-task copy); large lists are visited in parallel chunks. */
     public String buildCsvReport() {
-        var v = new CsvVisitor();
-        for (ITask t : tasks) v.visit(TaskRecord.from(t));
-        return v.result();
+        return VisitDriver.visit(snapshot(), new CsvVisitor(), parallelThreshold).result();
     }
 
     public String buildJsonReport() {
-        var v = new JsonVisitor();
-        for (ITask t : tasks) v.visit(TaskRecord.from(t));
-        return v.result();
+        return VisitDriver.visit(snapshot(), new JsonVisitor(), parallelThreshold).result();
     }
 
+    /** The visible rows as one consistent copy (a windowed view is sorted in full, under its own lock). */
+    private List<ITask> snapshot() {
+        LazySortedWindow w;
+        synchronized (state) {
+            w = window;
+            if (w == null) return view.toList();
+        }
+        return w.window(0, Integer.MAX_VALUE);
+    }
+
+    /** Counts of the visible tasks, from the live counters (no traversal). */
     public String buildStateStats() {
-        var v = new StatsVisitor();
-        for (ITask t : tasks) v.visit(TaskRecord.from(t));
-        return v.result();
+        StateStats st = getStats();
+        return "Total: " + st.visibleTotal() +
+                "\nTO_DO: " + st.visibleCount(TaskState.TO_DO) +
+                "\nIN_PROGRESS: " + st.visibleCount(TaskState.IN_PROGRESS) +
+                "\nCOMPLETED: " + st.visibleCount(TaskState.COMPLETED);
+    }
+
+    /* -------- rebuild (runs on the worker) -------- */
+
+    private void runNow(boolean useCache) throws TasksDAOException {
+        try {
+            scheduler.runNow(useCache);
+        } catch (TasksDAOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new TasksDAOException("Refresh failed", e);
+        }
+    }
+
+    /**
+     * Rebuild the view; with useCache, reuse a result computed at the current data version.
+     * The expensive part runs without the state lock; a write landing meanwhile means the
+     * result is stale (its delta was applied to the old view), so it is computed again.
+     */
+    private void rebuild(boolean useCache, BooleanSupplier superseded) throws TasksDAOException {
+        while (true) {
+            TaskFilter f;
+            SortStrategy s;
+            long version;
+            boolean windowed;
+            Published base;
+            List<ITask> rows;
+            synchronized (state) {
+                if (paged) break;
+                f = filter;
+                s = sort;
+                version = dataVersion;
+                windowed = window != null;
+                rememberPatchedView(f, s);
+                base = published;
+                rows = useCache && !windowed ? resultCache.get(new ViewResultCache.Key(f, s), version) : null;
+            }
+            if (rows == null && useCache && !windowed && base != null && base.version() == version
+                    && base.sort().equals(s) && FilterRefinement.narrows(f, base.filter())) {
+                // narrower filter, same data and order: drop rows from the last result, no fetch or sort
+                rows = filtered(base.rows(), f, superseded);
+                refinements.incrementAndGet();
+            }
+            if (rows == null) rows = compute(f, s, windowed, superseded);
+
+            synchronized (state) {
+                if (superseded.getAsBoolean()) throw new RefreshScheduler.Superseded();
+                if (dataVersion != version || filter != f || sort != s || paged) continue;
+                recountVisible(rows);
+                if (windowed) {
+                    window = new LazySortedWindow(rows, totalOrder(s, rows));
+                    view.clear();
+                    published = null;
+                    pcs.firePropertyChange("tasks", null, window.asList());
+                } else {
+                    resultCache.put(new ViewResultCache.Key(f, s), version, rows);
+                    resultCache.pruneOlderThan(version);
+                    view.reset(rows, s.comparator());
+                    published = new Published(f, s, version, rows);
+                    pcs.firePropertyChange("tasks", null, view.toList());
+                }
+                return;
+            }
+        }
+        rebuildPaged(superseded);
+    }
+
+    /** Paged mode: only the counts, from the database (GROUP BY state, with the filter pushed down). */
+    private void rebuildPaged(BooleanSupplier superseded) throws TasksDAOException {
+        while (true) {
+            TaskFilter f;
+            long version;
+            synchronized (state) {
+                if (!paged) return; // left paged mode meanwhile; that refresh rebuilds
+                f = filter;
+                version = dataVersion;
+            }
+            int[] all = countByState(TaskFilter.any());
+            if (superseded.getAsBoolean()) throw new RefreshScheduler.Superseded();
+            int[] visible = countByState(f);
+            synchronized (state) {
+                if (superseded.getAsBoolean()) throw new RefreshScheduler.Superseded();
+                if (!paged) return;
+                if (dataVersion != version || filter != f) continue;
+                System.arraycopy(all, 0, allCounts, 0, all.length);
+                System.arraycopy(visible, 0, visibleCounts, 0, visible.length);
+                pcs.firePropertyChange("tasks", null, List.of());
+                return;
+            }
+        }
+    }
+
+    /** Paged mode: recount on the worker after writes; a burst of writes shares one recount. */
+    private void recountPagedLater() {
+        if (!recountQueued.compareAndSet(false, true)) return;
+        scheduler.submit(() -> {
+            recountQueued.set(false);
+            TaskFilter f;
+            synchronized (state) {
+                if (!paged) return;
+                f = filter;
+            }
+            int[] all = countByState(TaskFilter.any());
+            int[] visible = countByState(f);
+            synchronized (state) {
+                if (!paged || filter != f) return; // the filter's own rebuild counts
+                System.arraycopy(all, 0, allCounts, 0, all.length);
+                System.arraycopy(visible, 0, visibleCounts, 0, visible.length);
+                fireStats();
+            }
+        });
+    }
+
+    private int[] countByState(TaskFilter f) throws TasksDAOException {
+        int[] out = new int[STATES.length];
+        AggregateQuery q = new AggregateQuery(List.of(GroupKey.state()), List.of(Aggregate.count()), f);
+        for (AggregateRow r : dao.aggregate(q)) {
+            out[((TaskState) r.keys().get(0)).ordinal()] = ((Long) r.values().get(0)).intValue();
+        }
+        return out;
+    }
+
+    /** Counts changed but no row is affected (the task is filtered out): views read getStats(). Holds state. */
+    private void fireStats() {
+        pcs.firePropertyChange("stats", null, new StateStats(allCounts, visibleCounts));
+    }
+
+    /** Filtered rows, sorted unless windowed. Checks for a newer request between stages. */
+    private List<ITask> compute(TaskFilter f, SortStrategy s, boolean windowed, BooleanSupplier superseded)
+            throws TasksDAOException {
+        var raw = Arrays.asList(dao.getTasks());
+        if (superseded.getAsBoolean()) throw new RefreshScheduler.Superseded();
+        List<ITask> filtered = filtered(raw, f, superseded);
+        if (windowed) return filtered;
+        if (superseded.getAsBoolean()) throw new RefreshScheduler.Superseded();
+        return filtered.size() >= parallelThreshold ? s.sortParallel(filtered) : s.sort(filtered);
+    }
+
+    /** Tasks passing the filter, in input order. Aborts (mid-scan) once superseded. */
+    private List<ITask> filtered(List<ITask> raw, TaskFilter f, BooleanSupplier superseded) {
+        boolean parallel = raw.size() >= parallelThreshold;
+        // ordered stream: the parallel path keeps the encounter order, so sorting stays stable
+        Stream<ITask> in = parallel ? raw.parallelStream() : raw.stream();
+        Predicate<ITask> test = indexed(f);
+        return in.filter(t -> {
+            if (superseded.getAsBoolean()) throw new RefreshScheduler.Superseded();
+            return test.test(t);
+        }).toList();
+    }
+
+    /**
+     * The filter as a predicate where every TEXT MATCHES, also inside AND / OR / NOT, is looked up
+     * in the index once (as an id set) instead of tokenizing every task.
+     */
+    private Predicate<ITask> indexed(TaskFilter f) {
+        return switch (f) {
+            case TaskFilter.TextMatches(String q) -> {
+                Set<Integer> ids = textIndex.matchAll(q);
+                yield t -> ids.contains(t.getId());
+            }
+            case TaskFilter.And(TaskFilter a, TaskFilter b) when mentionsText(f) -> indexed(a).and(indexed(b));
+            case TaskFilter.Or(TaskFilter a, TaskFilter b) when mentionsText(f) -> indexed(a).or(indexed(b));
+            case TaskFilter.Not(TaskFilter g) when mentionsText(g) -> indexed(g).negate();
+            default -> f::test;
+        };
+    }
+
+    private static boolean mentionsText(TaskFilter f) {
+        return switch (f) {
+            case TaskFilter.TextMatches m -> true;
+            case TaskFilter.And(TaskFilter a, TaskFilter b) -> mentionsText(a) || mentionsText(b);
+            case TaskFilter.Or(TaskFilter a, TaskFilter b) -> mentionsText(a) || mentionsText(b);
+            case TaskFilter.Not(TaskFilter g) -> mentionsText(g);
+            default -> false;
+        };
+    }
+
+    /** Sort order with the id tie-break every view uses, with the keys of these rows computed once. */
+    private static Comparator<ITask> totalOrder(SortStrategy s, List<ITask> rows) {
+        return s.comparatorFor(rows).thenComparingInt(ITask::getId);
+    }
+
+    /**
+     * Leaving a view that writes have patched since it was published: keep it (at the current
+     * version) so switching back is a cache hit and a narrower filter can refine it. Runs on the
+     * worker, so a filter or sort change never copies the view on the caller's thread. Holds state.
+     */
+    private void rememberPatchedView(TaskFilter f, SortStrategy s) {
+        Published p = published;
+        if (p == null || window != null || p.version() == dataVersion) return; // unpatched: cached by its rebuild
+        if (p.filter().equals(f) && p.sort().equals(s)) return;
+        List<ITask> rows = view.toList();
+        resultCache.put(new ViewResultCache.Key(p.filter(), p.sort()), dataVersion, rows);
+        published = new Published(p.filter(), p.sort(), dataVersion, rows);
+    }
+
+    /* -------- state counters (hold state) -------- */
+
+    private void recountAll(ITask[] all) {
+        Arrays.fill(allCounts, 0);
+        stateById.clear();
+        for (ITask t : all) {
+            allCounts[t.getState().ordinal()]++;
+            stateById.put(t.getId(), t.getState());
+        }
+    }
+
+    private void recountVisible(List<ITask> rows) {
+        Arrays.fill(visibleCounts, 0);
+        for (ITask t : rows) visibleCounts[t.getState().ordinal()]++;
+    }
+
+    /** Count a stored task's new state; returns the one it replaced (null if new). */
+    private TaskState countStored(ITask t) {
+        TaskState was = stateById.put(t.getId(), t.getState());
+        if (was != null) allCounts[was.ordinal()]--;
+        allCounts[t.getState().ordinal()]++;
+        return was;
+    }
+
+    /** Wait for background work, rethrowing its failure on the caller's thread. */
+    private static void await(CompletableFuture<Void> f) throws TasksDAOException {
+        try {
+            f.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TasksDAOException dex) throw dex;
+            if (cause instanceof RuntimeException rex) throw rex;
+            if (cause instanceof Error err) throw err;
+            throw new TasksDAOException("Background work failed", cause);
+        }
+    }
+
+    /**
+     * Keeps the sorted view in step with DAO writes: only the changed task is tested
+     * against the filter and placed at (or removed from) its sorted position.
+     * Runs on the writing thread, under the state lock; a bulk change only queues a reload and
+     * a rebuild on the worker. In paged mode nothing is known about
+     * the task's previous version, so the delta carries no position and the counts are queried again.
+     */
+    private final class ViewMaintainer implements TaskChangeListener {
+        @Override public void taskAdded(ITask t) {
+            if (pagedWrite(f -> f.test(t) ? TasksDelta.unplaced(TasksDelta.Kind.INSERTED, t) : null)) return;
+            synchronized (state) {
+                dataVersion++;
+                textIndex.put(t);
+                countStored(t);
+                if (!filter.test(t)) { fireStats(); return; }
+                visibleCounts[t.getState().ordinal()]++;
+                if (window != null) { window.add(t); fireWindow(); return; }
+                int to = view.insert(t);
+                pcs.firePropertyChange("tasksDelta", null, TasksDelta.inserted(to, t));
+            }
+        }
+
+        @Override public void taskUpdated(ITask t) {
+            if (pagedWrite(f -> TasksDelta.unplaced(f.test(t) ? TasksDelta.Kind.MOVED : TasksDelta.Kind.REMOVED, t))) return;
+            synchronized (state) {
+                dataVersion++;
+                textIndex.put(t);
+                TaskState was = countStored(t);
+                boolean visible = filter.test(t);
+                if (visible) visibleCounts[t.getState().ordinal()]++;
+                if (window != null) {
+                    boolean changed = window.removeById(t.getId());
+                    if (changed && was != null) visibleCounts[was.ordinal()]--;
+                    if (visible) { window.add(t); changed = true; }
+                    if (changed) fireWindow(); else fireStats();
+                    return;
+                }
+                int from = view.remove(t.getId());
+                if (from >= 0 && was != null) visibleCounts[was.ordinal()]--;
+                TasksDelta d;
+                if (from < 0) {
+                    if (!visible) { fireStats(); return; }
+                    d = TasksDelta.inserted(view.insert(t), t);
+                } else {
+                    d = visible ? TasksDelta.moved(from, view.insert(t), t) : TasksDelta.removed(from, t);
+                }
+                pcs.firePropertyChange("tasksDelta", null, d);
+            }
+        }
+
+        @Override public void taskDeleted(int id) {
+            if (pagedWrite(f -> TasksDelta.removedId(id))) return;
+            synchronized (state) {
+                dataVersion++;
+                textIndex.remove(id);
+                TaskState was = stateById.remove(id);
+                if (was != null) allCounts[was.ordinal()]--;
+                if (window != null) {
+                    if (window.removeById(id)) {
+                        if (was != null) visibleCounts[was.ordinal()]--;
+                        fireWindow();
+                    } else {
+                        fireStats();
+                    }
+                    return;
+                }
+                ITask old = view.byId(id);
+                if (old == null) { fireStats(); return; }
+                visibleCounts[old.getState().ordinal()]--;
+                int from = view.remove(id);
+                pcs.firePropertyChange("tasksDelta", null, TasksDelta.removed(from, old));
+            }
+        }
+
+        @Override public void tasksCleared() {
+            synchronized (state) {
+                dataVersion++;
+                textIndex.clear();
+                recountAll(new ITask[0]);
+                Arrays.fill(visibleCounts, 0);
+                if (window != null) window = new LazySortedWindow(List.of(), totalOrder(sort, List.of()));
+                view.clear();
+                pcs.firePropertyChange("tasks", null, List.of());
+            }
+        }
+
+        @Override public void tasksReplaced(Table table) {
+            synchronized (state) {
+                dataVersion++;
+            }
+            // one rebuild is far cheaper than a delta per row; both run on the worker, in this order
+            scheduler.submit(() -> loadStored(false));
+            requestRefresh();
+        }
+
+        /**
+         * Paged mode: fire the delta made for the current filter (none when null) and queue a
+         * recount, outside the lock. False when not paged.
+         */
+        private boolean pagedWrite(Function<TaskFilter, TasksDelta> delta) {
+            synchronized (state) {
+                if (!paged) return false;
+                dataVersion++;
+                TasksDelta d = delta.apply(filter);
+                if (d != null) pcs.firePropertyChange("tasksDelta", null, d);
+            }
+            recountPagedLater();
+            return true;
+        }
+
+        private void fireWindow() {
+            pcs.firePropertyChange("tasks", null, window.asList());
+        }
     }
 }
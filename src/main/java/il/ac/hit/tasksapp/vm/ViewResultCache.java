@@ -0,0 +1,58 @@
+package il.ac.hit.tasksapp.vm;
+
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+import il.ac.hit.tasksapp.service.strategy.SortStrategy;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of filtered + sorted results.
+ * Key = (filter record tree, sort strategy), compared structurally.
+ * Each entry remembers the data version it was computed at; an entry from an older
+ * version is stale and is dropped when looked up (or when the cache is pruned).
+ */
+final class ViewResultCache {
+
+    record Key(TaskFilter filter, SortStrategy sort) {}
+
+    private record Entry(long version, List<ITask> sorted) {}
+
+    private final Map<Key, Entry> entries;
+    private long hits, misses, puts;
+
+    ViewResultCache(int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** Cached result for this key at this data version, or null. */
+    synchronized List<ITask> get(Key key, long version) {
+        Entry e = entries.get(key);
+        if (e != null && e.version() == version) { hits++; return e.sorted(); }
+        if (e != null) entries.remove(key);
+        misses++;
+        return null;
+    }
+
+    /** Store a result (the list must not be modified afterwards). */
+    synchronized void put(Key key, long version, List<ITask> sorted) {
+        entries.put(key, new Entry(version, sorted));
+        puts++;
+    }
+
+    /** Drop entries computed before the given version. */
+    synchronized void pruneOlderThan(long version) {
+        entries.values().removeIf(e -> e.version() < version);
+    }
+
+    synchronized int size() { return entries.size(); }
+    synchronized long hits() { return hits; }
+    synchronized long misses() { return misses; }
+    synchronized long puts() { return puts; }
+}
@@ -0,0 +1,101 @@
+package il.ac.hit.tasksapp.vm;
+
+import il.ac.hit.tasksapp.model.ITask;
+
+import javax.swing.*;
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Collects the ViewModel's change events and hands the view one consolidated Update per tick
+ * (one EDT turn by default), instead of one invokeLater per event.
+ * Within a tick a newer "tasks" list replaces the older one together with every delta before
+ * it, and only the last filter description is kept. Every update carries the state counts as of
+ * its last event. Those are read when the event arrives, before taking this batcher's lock: the VM
+ * fires while holding its own lock, so flush() must never call back into it.
+ */
+public final class ViewUpdateBatcher {
+
+    /**
+     * What changed since the last update: a new full list (null = unchanged), row deltas to apply
+     * after it in order, the new filter description (null = unchanged), and the state counts now.
+     */
+    public record Update(List<ITask> tasks, List<TasksDelta> deltas, String filter, StateStats stats) {}
+
+    private final TasksViewModel vm;
+    private final Consumer<Update> sink;
+    private final Executor tick;
+
+    private final Object lock = new Object();
+    private List<ITask> tasks;                          // guarded by lock
+    private List<TasksDelta> deltas = new ArrayList<>(); // guarded by lock
+    private String filter;                              // guarded by lock
+    private boolean statsChanged;                       // guarded by lock
+    private StateStats stats;                           // guarded by lock
+    private boolean scheduled;                          // guarded by lock
+
+    private long received;   // guarded by lock
+    private long delivered;  // guarded by lock
+
+    /** Deliver on the EDT. */
+    public ViewUpdateBatcher(TasksViewModel vm, Consumer<Update> sink) {
+        this(vm, sink, SwingUtilities::invokeLater);
+    }
+
+    /** Deliver through any executor; each task it runs is one tick. */
+    public ViewUpdateBatcher(TasksViewModel vm, Consumer<Update> sink, Executor tick) {
+        this.vm = vm;
+        this.sink = sink;
+        this.tick = tick;
+        vm.addListener(this::onEvent);
+    }
+
+    /** Events received from the ViewModel. */
+    public long received() { synchronized (lock) { return received; } }
+    /** Updates handed to the view. */
+    public long delivered() { synchronized (lock) { return delivered; } }
+    /** Events that did not reach the view as an update of their own (replaced, or folded into one). */
+    public long coalesced() { synchronized (lock) { return received - delivered; } }
+
+    @SuppressWarnings("unchecked")
+    private void onEvent(PropertyChangeEvent e) {
+        StateStats now = vm.getStats(); // reentrant when the VM fires under its lock
+        boolean schedule;
+        synchronized (lock) {
+            switch (e.getPropertyName()) {
+                case "tasks" -> {
+                    // the new list already contains every earlier delta
+                    deltas = new ArrayList<>();
+                    tasks = (List<ITask>) e.getNewValue();
+                }
+                case "tasksDelta" -> deltas.add((TasksDelta) e.getNewValue());
+                case "filter" -> filter = (String) e.getNewValue();
+                case "stats" -> statsChanged = true;
+                default -> { return; }
+            }
+            stats = now;
+            received++;
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        if (schedule) tick.execute(this::flush);
+    }
+
+    private void flush() {
+        Update u;
+        synchronized (lock) {
+            scheduled = false;
+            if (tasks == null && deltas.isEmpty() && filter == null && !statsChanged) return;
+            u = new Update(tasks, List.copyOf(deltas), filter, stats);
+            delivered++;
+            tasks = null;
+            deltas = new ArrayList<>();
+            filter = null;
+            statsChanged = false;
+        }
+        sink.accept(u);
+    }
+}
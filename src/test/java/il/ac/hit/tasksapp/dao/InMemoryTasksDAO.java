@@ -44,6 +44,19 @@ public class InMemoryTasksDAO implements ITasksDAO {
         data.remove(id);
     }
 
+    /** All-or-nothing: on an exception the map is restored from a copy taken up front. */
+    @Override
+    public synchronized void runInTransaction(Work work) throws TasksDAOException {
+        Map<Integer, ITask> before = new HashMap<>(data);
+        try {
+            work.run();
+        } catch (TasksDAOException | RuntimeException e) {
+            data.clear();
+            data.putAll(before);
+            throw e;
+        }
+    }
+
     private static ITask copy(ITask t) {
         return new Task(t.getId(), t.getTitle(), t.getDescription(), t.getState());
     }
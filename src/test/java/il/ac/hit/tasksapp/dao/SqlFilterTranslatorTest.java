@@ -0,0 +1,35 @@
+package il.ac.hit.tasksapp.dao;
+
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+import il.ac.hit.tasksapp.model.state.TaskState;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlFilterTranslatorTest {
+
+    @Test
+    void pushes_down_what_sql_can_express_and_keeps_the_rest_as_residual() {
+        var p = SqlFilterTranslator.translate(TaskFilter.byTitleContains("50%_off").and(TaskFilter.byState(TaskState.TO_DO)));
+        assertEquals("(lower(title) like ? escape '\\') and (state = ?)", p.where());
+        assertEquals(List.of("%50\\%\\_off%", "TO_DO"), p.params());
+        assertTrue(p.exact());
+
+        // TEXT MATCHES: narrowed by a LIKE per term, whole words checked in Java
+        TaskFilter text = TaskFilter.byText("report");
+        p = SqlFilterTranslator.translate(TaskFilter.byIdBetween(1, 9).and(text));
+        assertEquals("(id between ? and ?) and ((lower(title) like ? escape '\\' or lower(description) like ? escape '\\'))",
+                p.where());
+        assertEquals(List.of(1, 9, "%report%", "%report%"), p.params());
+        assertEquals(text, p.residual());
+        assertTrue(SqlFilterTranslator.translate(TaskFilter.byText(" ,")).exact());
+
+        // an OR with an untranslatable side can't be split
+        TaskFilter or = TaskFilter.byState(TaskState.COMPLETED).or(text);
+        p = SqlFilterTranslator.translate(or.not());
+        assertEquals("1=1", p.where());
+        assertEquals(or.not(), p.residual());
+    }
+}
@@ -0,0 +1,56 @@
+package il.ac.hit.tasksapp.model.aggregate;
+
+import il.ac.hit.tasksapp.dao.InMemoryTasksDAO;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+import il.ac.hit.tasksapp.model.state.TaskState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static il.ac.hit.tasksapp.TestData.t;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AggregateTest {
+
+    private static InMemoryTasksDAO dao() throws Exception {
+        InMemoryTasksDAO dao = new InMemoryTasksDAO();
+        dao.addTask(t(1, "Write report", "", TaskState.TO_DO));
+        dao.addTask(t(2, "Review", "", TaskState.COMPLETED));
+        dao.addTask(t(7, "Wash car", "", TaskState.TO_DO));
+        dao.addTask(t(12, "Water plants", "", TaskState.TO_DO));
+        dao.addTask(t(15, "Read", "", TaskState.IN_PROGRESS));
+        return dao;
+    }
+
+    @Test
+    void groups_by_state_and_id_bucket_with_count_min_and_max() throws Exception {
+        var q = AggregateQuery.of(List.of(GroupKey.state(), GroupKey.idBucket(10)),
+                Aggregate.count(), Aggregate.min(Aggregate.Column.ID), Aggregate.max(Aggregate.Column.TITLE));
+        List<AggregateRow> rows = dao().aggregate(q);
+
+        assertEquals(List.of(
+                new AggregateRow(List.of(TaskState.TO_DO, 0), List.of(2L, 1, "Write report")),
+                new AggregateRow(List.of(TaskState.TO_DO, 10), List.of(1L, 12, "Water plants")),
+                new AggregateRow(List.of(TaskState.IN_PROGRESS, 10), List.of(1L, 15, "Read")),
+                new AggregateRow(List.of(TaskState.COMPLETED, 0), List.of(1L, 2, "Review"))), rows);
+    }
+
+    @Test
+    void title_prefix_groups_only_matching_tasks() throws Exception {
+        var q = AggregateQuery.of(List.of(GroupKey.titlePrefix(2)), Aggregate.count())
+                .where(TaskFilter.byState(TaskState.TO_DO));
+        assertEquals(List.of(
+                new AggregateRow(List.of("Wa"), List.of(2L)),
+                new AggregateRow(List.of("Wr"), List.of(1L))), dao().aggregate(q));
+    }
+
+    @Test
+    void a_global_aggregate_over_nothing_is_one_row_like_sql() throws Exception {
+        var q = AggregateQuery.of(List.of(), Aggregate.count(), Aggregate.min(Aggregate.Column.ID))
+                .where(TaskFilter.byTitleContains("nothing"));
+        assertEquals(List.of(new AggregateRow(List.of(), Arrays.asList(0L, null))), dao().aggregate(q));
+        assertEquals(List.of(), dao().aggregate(AggregateQuery.of(List.of(GroupKey.state()), Aggregate.count())
+                .where(TaskFilter.byTitleContains("nothing"))));
+    }
+}
@@ -0,0 +1,32 @@
+package il.ac.hit.tasksapp.model.filter;
+
+import il.ac.hit.tasksapp.model.state.TaskState;
+import org.junit.jupiter.api.Test;
+
+import static il.ac.hit.tasksapp.model.filter.FilterRefinement.narrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FilterRefinementTest {
+
+    @Test
+    void longer_queries_and_tighter_ranges_narrow() {
+        assertTrue(narrows(TaskFilter.byTitleContains("Abc"), TaskFilter.byTitleContains("ab")));
+        assertTrue(narrows(TaskFilter.byIdBetween(3, 5), TaskFilter.byIdBetween(0, 10)));
+        assertTrue(narrows(TaskFilter.byText("report q3"), TaskFilter.byText("report")));
+        assertTrue(narrows(TaskFilter.byState(TaskState.TO_DO), TaskFilter.any()));
+
+        assertFalse(narrows(TaskFilter.byTitleContains("ab"), TaskFilter.byTitleContains("abc")));
+        assertFalse(narrows(TaskFilter.byIdBetween(3, 11), TaskFilter.byIdBetween(0, 10)));
+        assertFalse(narrows(TaskFilter.byTitleContains("ab").not(), TaskFilter.byTitleContains("a").not()));
+    }
+
+    @Test
+    void combinators_narrow_part_by_part() {
+        TaskFilter older = TaskFilter.byTitleContains("a").and(TaskFilter.byIdBetween(0, 100));
+        assertTrue(narrows(TaskFilter.byTitleContains("ab").and(TaskFilter.byIdBetween(0, 50)), older));
+        assertFalse(narrows(TaskFilter.byTitleContains("ab"), older));
+        assertTrue(narrows(TaskFilter.byTitleContains("ab"), TaskFilter.byTitleContains("a").or(TaskFilter.byState(TaskState.COMPLETED))));
+        assertTrue(narrows(TaskFilter.byTitleContains("a").not(), TaskFilter.byTitleContains("ab").not()));
+    }
+}
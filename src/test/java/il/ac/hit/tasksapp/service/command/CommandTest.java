@@ -1,9 +1,29 @@
 package il.ac.hit.tasksapp.service.command;
 
+import il.ac.hit.tasksapp.dao.CachingTasksDAOProxy;
 import il.ac.hit.tasksapp.dao.InMemoryTasksDAO;
 import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.ObservableTasksDAOProxy;
+import il.ac.hit.tasksapp.dao.TaskChangeListener;
+import il.ac.hit.tasksapp.dao.TasksDAOException;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.TaskField;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
 import il.ac.hit.tasksapp.model.state.TaskState;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static il.ac.hit.tasksapp.TestData.t;
 import static org.junit.jupiter.api.Assertions.*;
@@ -53,4 +73,292 @@ public class CommandTest {
         mgr.redo();
         assertNull(dao.getTask(1));
     }
+
+    @Test
+    void macro_is_all_or_nothing_and_listeners_only_see_committed_units() throws Exception {
+        ObservableTasksDAOProxy dao = new ObservableTasksDAOProxy(new InMemoryTasksDAO());
+        List<String> events = new ArrayList<>();
+        dao.addListener(new TaskChangeListener() {
+            @Override public void taskAdded(ITask task) { events.add("added " + task.getId()); }
+            @Override public void taskUpdated(ITask task) { events.add("updated " + task.getId()); }
+            @Override public void taskDeleted(int id) { events.add("deleted " + id); }
+            @Override public void tasksCleared() { events.add("cleared"); }
+        });
+        CommandManager mgr = new CommandManager();
+        dao.addTask(t(1, "A", "", TaskState.TO_DO));
+        events.clear();
+
+        // second step fails (duplicate id): the first one is rolled back, nobody hears of it
+        MacroCommand bad = new MacroCommand(dao,
+                new AddTaskCommand(dao, t(2, "B", "", TaskState.TO_DO)),
+                new AddTaskCommand(dao, t(1, "dup", "", TaskState.TO_DO)));
+        assertThrows(TasksDAOException.class, () -> mgr.doCommand(bad));
+        assertNull(dao.getTask(2));
+        assertTrue(events.isEmpty());
+
+        mgr.doCommand(new MacroCommand(dao,
+                new AddTaskCommand(dao, t(2, "B", "", TaskState.TO_DO)),
+                new UpdateTaskCommand(dao, t(1, "A1", "", TaskState.COMPLETED))));
+        assertEquals(List.of("added 2", "updated 1"), events);
+        mgr.undo();
+        assertEquals("A", dao.getTask(1).getTitle());
+        assertNull(dao.getTask(2));
+    }
+
+    @Test
+    void delete_all_undo_restores_in_one_bulk_unit() throws Exception {
+        ObservableTasksDAOProxy dao = new ObservableTasksDAOProxy(new InMemoryTasksDAO());
+        for (int i = 0; i < 500; i++) dao.addTask(t(i, "t" + i, "", TaskState.TO_DO));
+        List<String> events = new ArrayList<>();
+        dao.addListener(new TaskChangeListener() {
+            @Override public void taskAdded(ITask task) { events.add("added"); }
+            @Override public void taskUpdated(ITask task) { events.add("updated"); }
+            @Override public void taskDeleted(int id) { events.add("deleted"); }
+            @Override public void tasksCleared() { events.add("cleared"); }
+            @Override public void tasksReplaced(Table table) throws TasksDAOException {
+                int[] rows = {0};
+                table.forEach(t -> { rows[0]++; return true; });
+                events.add("replaced " + rows[0]);
+            }
+        });
+        // a listener without tasksReplaced hears the bulk unit as a clear plus one add per row
+        List<String> replayed = new ArrayList<>();
+        dao.addListener(new TaskChangeListener() {
+            @Override public void taskAdded(ITask task) { replayed.add("added"); }
+            @Override public void taskUpdated(ITask task) { replayed.add("updated"); }
+            @Override public void taskDeleted(int id) { replayed.add("deleted"); }
+            @Override public void tasksCleared() { replayed.add("cleared"); }
+        });
+
+        CommandManager mgr = new CommandManager();
+        mgr.doCommand(new DeleteAllTasksCommand(dao));
+        assertEquals(0, dao.countTasks());
+        mgr.undo();
+        assertEquals(500, dao.countTasks());
+        assertEquals(List.of("cleared", "replaced 500"), events);
+        assertEquals(2 + 500, replayed.size());
+        assertEquals(List.of("cleared", "cleared", "added"), replayed.subList(0, 3));
+    }
+
+    @Test
+    void history_over_budget_spills_to_disk_and_undoes_back_to_the_start(@TempDir Path dir) throws Exception {
+        ITasksDAO dao = new InMemoryTasksDAO();
+        CommandManager mgr = CommandManager.withSpill(3, Long.MAX_VALUE, new CommandCodec(dao), dir.resolve("undo.bin"));
+        for (int i = 0; i < 10; i++) mgr.doCommand(new AddTaskCommand(dao, t(i, "t" + i, "", TaskState.TO_DO)));
+        mgr.doCommand(new UpdateTaskCommand(dao, t(0, "renamed", "", TaskState.COMPLETED)));
+        mgr.doCommand(new DeleteAllTasksCommand(dao));
+
+        assertEquals(12, mgr.undoDepth());
+        assertEquals(9, mgr.spilledCount());
+        for (int i = 0; i < 12; i++) mgr.undo();
+        assertEquals(0, dao.countTasks());
+
+        // redo is bounded too: only the 3 most recent undos stay redoable
+        assertEquals(3, mgr.redoDepth());
+        assertEquals(9, mgr.droppedCount());
+        mgr.redo();
+        assertNotNull(dao.getTask(0));
+
+        // close() releases the spill file: what was spilled can no longer be undone
+        CommandManager closed = CommandManager.withSpill(3, Long.MAX_VALUE, new CommandCodec(dao), dir.resolve("closed.bin"));
+        for (int i = 20; i < 25; i++) closed.doCommand(new AddTaskCommand(dao, t(i, "t" + i, "", TaskState.TO_DO)));
+        closed.close();
+        for (int i = 0; i < 3; i++) closed.undo();
+        assertThrows(TasksDAOException.class, closed::undo);
+    }
+
+    @Test
+    void without_spill_file_the_oldest_entries_are_dropped_by_bytes() throws Exception {
+        ITasksDAO dao = new InMemoryTasksDAO();
+        for (int i = 0; i < 100; i++) dao.addTask(t(i, "t" + i, "some description", TaskState.TO_DO));
+        CommandManager mgr = new CommandManager(100, 4_000);
+        mgr.doCommand(new UpdateTaskCommand(dao, t(1, "small", "", TaskState.TO_DO)));
+        mgr.doCommand(new DeleteAllTasksCommand(dao));     // ~100 snapshots: alone over budget
+        assertTrue(mgr.estimatedBytes() <= 4_000);
+        assertEquals(2, mgr.droppedCount());
+        mgr.undo();                                         // nothing left to undo
+        assertEquals(0, dao.countTasks());
+    }
+
+    @Test
+    void journal_recovers_history_that_matches_the_table_and_drops_a_torn_tail(@TempDir Path dir) throws Exception {
+        ITasksDAO dao = new InMemoryTasksDAO();
+        dao.addTask(t(1, "base", "", TaskState.TO_DO));
+        CommandJournal journal = new CommandJournal(dir, new CommandCodec(dao));
+        CommandManager mgr = new CommandManager();
+        journal.checkpoint(mgr);
+        mgr.setJournal(journal);
+        mgr.doCommand(new AddTaskCommand(dao, t(2, "two", "", TaskState.TO_DO)));
+        mgr.doCommand(new UpdateTaskCommand(dao, t(1, "renamed", "", TaskState.COMPLETED)));
+        mgr.doCommand(new DeleteTaskCommand(dao, 2));
+        mgr.undo();                                         // task 2 back
+        journal.close();                                    // a crash: no checkpoint
+        // ... in the middle of a record
+        Files.write(dir.resolve("journal.log"), new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        CommandJournal reopened = new CommandJournal(dir, new CommandCodec(dao));
+        CommandManager recovered = new CommandManager();
+        assertEquals(4, reopened.recover(dao, recovered));
+        assertEquals(2, recovered.undoDepth());
+        assertEquals(1, recovered.redoDepth());
+
+        recovered.setJournal(reopened);
+        recovered.undo();
+        recovered.undo();
+        assertEquals("base", dao.getTask(1).getTitle());
+        assertNull(dao.getTask(2));
+        recovered.close();                                  // checkpoint: the log is emptied
+        assertEquals(0, Files.size(dir.resolve("journal.log")));
+
+        CommandJournal again = new CommandJournal(dir, new CommandCodec(dao));
+        CommandManager fromCheckpoint = new CommandManager();
+        assertEquals(0, again.recover(dao, fromCheckpoint));
+        assertEquals(0, fromCheckpoint.undoDepth());
+        assertEquals(3, fromCheckpoint.redoDepth());
+        fromCheckpoint.redo();
+        assertNotNull(dao.getTask(2));
+        again.close();
+    }
+
+    @Test
+    void journal_behind_the_table_leaves_the_rows_alone_and_starts_over(@TempDir Path dir) throws Exception {
+        ITasksDAO dao = new InMemoryTasksDAO();
+        CommandJournal journal = new CommandJournal(dir, new CommandCodec(dao), 32, 100, 3);
+        CommandManager mgr = new CommandManager();
+        journal.checkpoint(mgr);
+        mgr.setJournal(journal);
+        for (int i = 0; i < 4; i++) mgr.doCommand(new AddTaskCommand(dao, t(i, "t" + i, "", TaskState.TO_DO)));
+        journal.close();
+        dao.addTask(t(99, "written without the journal", "", TaskState.TO_DO));
+
+        CommandJournal reopened = new CommandJournal(dir, new CommandCodec(dao));
+        CommandManager recovered = new CommandManager();
+        assertEquals(-1, reopened.recover(dao, recovered));
+        assertEquals(5, dao.countTasks());
+        assertEquals(0, recovered.undoDepth());
+        assertEquals(0, Files.size(dir.resolve("journal.log")));
+        reopened.close();
+    }
+
+    @Test
+    void checkpoint_streams_the_table_and_the_spilled_history(@TempDir Path dir) throws Exception {
+        boolean[] fullReads = {false};
+        ITasksDAO dao = new InMemoryTasksDAO() {
+            @Override public ITask[] getTasks() throws TasksDAOException {
+                if (!fullReads[0]) throw new TasksDAOException("checkpoint must not load the table");
+                return super.getTasks();
+            }
+            @Override public void forEachTask(TaskFilter filter, RowHandler handler) throws TasksDAOException {
+                for (ITask x : super.getTasks()) {                 // stands in for a database cursor
+                    if (filter.test(x) && !handler.handle(x)) return;
+                }
+            }
+        };
+        CommandJournal journal = new CommandJournal(dir.resolve("journal"), new CommandCodec(dao));
+        CommandManager mgr = CommandManager.withSpill(3, Long.MAX_VALUE, new CommandCodec(dao), dir.resolve("undo.bin"));
+        journal.checkpoint(mgr);
+        mgr.setJournal(journal);
+        for (int i = 0; i < 10; i++) mgr.doCommand(new AddTaskCommand(dao, t(i, "t" + i, "", TaskState.TO_DO)));
+        assertEquals(7, mgr.spilledCount());
+        mgr.close();                                        // checkpoint with 7 spilled + 3 in memory
+
+        fullReads[0] = true;                                // recovery compares against the table
+        CommandJournal reopened = new CommandJournal(dir.resolve("journal"), new CommandCodec(dao));
+        CommandManager recovered = new CommandManager();
+        assertEquals(0, reopened.recover(dao, recovered));
+        assertEquals(10, recovered.undoDepth());
+        for (int i = 0; i < 10; i++) recovered.undo();
+        assertEquals(0, dao.countTasks());
+        reopened.close();
+    }
+
+    @Test
+    void executor_group_commits_queued_commands_and_isolates_a_failing_one() throws Exception {
+        ITasksDAO dao = new InMemoryTasksDAO();
+        dao.addTask(t(1, "existing", "", TaskState.TO_DO));
+        CommandManager mgr = new CommandManager();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Command blocker = new Command() {
+            @Override public void execute() {
+                started.countDown();
+                try { release.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            }
+            @Override public void undo() { }
+        };
+
+        try (AsyncCommandExecutor exec = new AsyncCommandExecutor(dao, mgr)) {
+            exec.submit(blocker);
+            started.await();
+            // these queue up behind the blocker and commit together
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 2; i <= 11; i++) futures.add(exec.submit(new AddTaskCommand(dao, t(i, "t" + i, "", TaskState.TO_DO))));
+            CompletableFuture<Void> duplicate = exec.submit(new AddTaskCommand(dao, t(1, "dup", "", TaskState.TO_DO)));
+            release.countDown();
+
+            for (CompletableFuture<Void> f : futures) f.get(5, TimeUnit.SECONDS);
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> duplicate.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TasksDAOException.class, ex.getCause());
+            assertEquals(11, dao.countTasks());
+            assertEquals("existing", dao.getTask(1).getTitle());
+            // blocker, the failed batch of 11, then 11 single retries
+            assertEquals(13, exec.batches());
+            assertEquals(11, exec.committed());
+
+            exec.undo().get(5, TimeUnit.SECONDS);
+            assertNull(dao.getTask(11));
+        }
+        assertEquals(10, mgr.undoDepth());
+    }
+
+    @Test
+    void executor_close_drains_the_queue_even_when_interrupted() throws Exception {
+        ITasksDAO dao = new InMemoryTasksDAO();
+        AsyncCommandExecutor exec = new AsyncCommandExecutor(dao, new CommandManager());
+        CompletableFuture<Void> last = null;
+        for (int i = 1; i <= 5; i++) last = exec.submit(new AddTaskCommand(dao, t(i, "t" + i, "", TaskState.TO_DO)));
+
+        Thread.currentThread().interrupt();
+        exec.close();
+        assertTrue(Thread.interrupted());                    // re-asserted (and cleared here)
+        assertTrue(last.isDone());
+        assertEquals(5, dao.countTasks());
+    }
+
+    @Test
+    void field_edits_write_one_column_without_reading_and_round_trip_through_the_codec() throws Exception {
+        List<String> calls = new ArrayList<>();
+        InMemoryTasksDAO backing = new InMemoryTasksDAO() {
+            @Override public ITask getTask(int id) throws TasksDAOException { calls.add("get " + id); return super.getTask(id); }
+            @Override public void updateTaskFields(ITask task, Set<TaskField> changed) throws TasksDAOException {
+                calls.add("set " + changed);
+                super.updateTaskFields(task, changed);
+            }
+        };
+        backing.addTask(t(1, "one", "desc", TaskState.TO_DO));
+        ITasksDAO dao = new CachingTasksDAOProxy(backing);
+        ITask loaded = dao.getTasks()[0];
+
+        CommandManager mgr = new CommandManager();
+        mgr.doCommand(new ChangeStateCommand(dao, loaded, TaskState.IN_PROGRESS));
+        mgr.doCommand(new RenameTaskCommand(dao, 1, "renamed"));       // before-image from the cache
+        mgr.doCommand(new EditDescriptionCommand(dao, 1, "new desc"));
+        assertEquals(List.of("set [STATE]", "set [TITLE]", "set [DESCRIPTION]"), calls);
+        ITask now = dao.getTask(1);
+        assertEquals("renamed", now.getTitle());
+        assertEquals("new desc", now.getDescription());
+        assertEquals(TaskState.IN_PROGRESS, now.getState());
+
+        CommandCodec codec = new CommandCodec(dao);
+        Command restored = codec.decode(codec.encode(new RenameTaskCommand(dao, loaded, "x")));
+        assertInstanceOf(RenameTaskCommand.class, restored);
+
+        mgr.undo();
+        mgr.undo();
+        mgr.undo();
+        assertEquals("one", dao.getTask(1).getTitle());
+        assertEquals("desc", dao.getTask(1).getDescription());
+        assertEquals(TaskState.TO_DO, dao.getTask(1).getState());
+        assertFalse(calls.contains("get 1"));
+    }
 }
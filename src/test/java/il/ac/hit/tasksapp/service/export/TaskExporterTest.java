@@ -0,0 +1,58 @@
+package il.ac.hit.tasksapp.service.export;
+
+import il.ac.hit.tasksapp.dao.InMemoryTasksDAO;
+import il.ac.hit.tasksapp.dao.TasksDAOException;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+import il.ac.hit.tasksapp.model.state.TaskState;
+import il.ac.hit.tasksapp.vm.TasksViewModel;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static il.ac.hit.tasksapp.TestData.t;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskExporterTest {
+
+    @Test
+    void exports_matching_rows_with_progress_and_stops_when_cancelled() throws Exception {
+        InMemoryTasksDAO dao = new InMemoryTasksDAO();
+        for (int i = 0; i < 2_500; i++) {
+            dao.addTask(t(i, "t" + i, "", i % 2 == 0 ? TaskState.TO_DO : TaskState.COMPLETED));
+        }
+        TaskExporter exporter = new TaskExporter(dao);
+
+        List<Long> progress = new ArrayList<>();
+        StringWriter out = new StringWriter();
+        long n = exporter.export(TaskFilter.byState(TaskState.TO_DO), TaskExporter.Format.CSV, out, () -> false, progress::add);
+        assertEquals(1_250, n);
+        assertEquals(List.of(1_000L, 1_250L), progress);
+        assertEquals(1_251, out.toString().lines().count());
+
+        long[] seen = {0};
+        assertThrows(CancellationException.class, () -> exporter.export(TaskFilter.any(), TaskExporter.Format.JSON,
+                new StringWriter(), () -> ++seen[0] > 10, r -> { }));
+        assertEquals(11, seen[0]);
+    }
+
+    @Test
+    void exports_through_the_view_model_read_the_backing_cursor_not_the_cache() throws Exception {
+        int[] cursors = {0};
+        InMemoryTasksDAO backing = new InMemoryTasksDAO() {
+            @Override public void forEachTask(TaskFilter filter, RowHandler handler) throws TasksDAOException {
+                cursors[0]++;
+                super.forEachTask(filter, handler);
+            }
+        };
+        backing.addTask(t(1, "a", "", TaskState.TO_DO));
+        TasksViewModel vm = new TasksViewModel(backing);     // loads (and caches) the table
+
+        StringWriter out = new StringWriter();
+        assertEquals(1, new TaskExporter(vm.getDaoForCommands())
+                .export(TaskFilter.any(), TaskExporter.Format.CSV, out, () -> false, r -> { }));
+        assertEquals(1, cursors[0]);
+    }
+}
@@ -0,0 +1,50 @@
+package il.ac.hit.tasksapp.service.search;
+
+import il.ac.hit.tasksapp.dao.InMemoryTasksDAO;
+import il.ac.hit.tasksapp.dao.ObservableTasksDAOProxy;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+import il.ac.hit.tasksapp.model.state.TaskState;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static il.ac.hit.tasksapp.TestData.t;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FullTextIndexTest {
+
+    @Test
+    void ranks_by_bm25_and_follows_dao_writes() throws Exception {
+        ObservableTasksDAOProxy dao = new ObservableTasksDAOProxy(new InMemoryTasksDAO());
+        FullTextIndex idx = new FullTextIndex();
+        dao.addListener(idx);
+
+        dao.addTask(t(1, "Fix login", "login page crashes on login", TaskState.TO_DO));
+        dao.addTask(t(2, "Write docs", "mention the login flow once", TaskState.TO_DO));
+        dao.addTask(t(3, "Release", "tag and ship", TaskState.COMPLETED));
+
+        // more occurrences (and a shorter doc) rank higher
+        List<FullTextIndex.Hit> hits = idx.search("LOGIN", 10);
+        assertEquals(List.of(1, 2), hits.stream().map(h -> h.task().getId()).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+
+        assertEquals(Set.of(2), idx.matchAll("login flow"));
+
+        // update re-indexes, delete drops postings
+        dao.updateTask(t(3, "Release", "ship after login review", TaskState.COMPLETED));
+        assertEquals(Set.of(1, 2, 3), idx.matchAll("login"));
+        dao.deleteTask(1);
+        assertEquals(Set.of(2, 3), idx.matchAll("login"));
+        dao.deleteTasks();
+        assertEquals(0, idx.size());
+    }
+
+    @Test
+    void text_filter_agrees_with_index() {
+        ITask task = t(1, "Fix login", "Page crashes", TaskState.TO_DO);
+        assertTrue(TaskFilter.byText("page LOGIN").test(task));
+        assertFalse(TaskFilter.byText("log").test(task));
+    }
+}
@@ -0,0 +1,33 @@
+package il.ac.hit.tasksapp.service.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class IntKeySortsTest {
+
+    @Test
+    void radix_matches_stable_comparison_sort_including_negatives() {
+        Random r = new Random(7);
+        int[] keys = r.ints(5_000, -300, 300).toArray();
+        keys[0] = Integer.MIN_VALUE;
+        keys[1] = Integer.MAX_VALUE;
+        assertArrayEquals(stablePerm(keys), IntKeySorts.radixSort(keys));
+    }
+
+    @Test
+    void counting_matches_stable_comparison_sort() {
+        int[] keys = new Random(3).ints(1_000, 0, 4).toArray();
+        assertArrayEquals(stablePerm(keys), IntKeySorts.countingSort(keys, 4));
+    }
+
+    private static int[] stablePerm(int[] keys) {
+        return IntStream.range(0, keys.length).boxed()
+                .sorted(Comparator.comparingInt(i -> keys[i]))
+                .mapToInt(Integer::intValue).toArray();
+    }
+}
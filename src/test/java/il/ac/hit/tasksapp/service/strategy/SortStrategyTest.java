@@ -5,10 +5,14 @@ import il.ac.hit.tasksapp.model.state.TaskState;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Method;
+import java.text.CollationKey;
 import java.util.*;
 import java.util.function.Function;
 
 import static il.ac.hit.tasksapp.TestData.t;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -56,6 +60,146 @@ public class SortStrategyTest {
         assertTrue(ok, "Expected title ordering to be monotonic (ASC/DESC, CS/CI). Got: " + titles(out));
     }
 
+    @Test
+    void sortByTitle_keys_follow_title_changes_and_keep_ties_stable() {
+        SortByTitle s = new SortByTitle();
+        List<ITask> first = s.sort(List.of(
+                t(1, "b", "", TaskState.TO_DO),
+                t(2, "a", "", TaskState.TO_DO),
+                t(3, "b", "", TaskState.TO_DO)));
+        assertEquals(List.of(2, 1, 3), first.stream().map(ITask::getId).toList());
+
+        // same ids, new titles: cached keys must not leak the old order
+        List<ITask> second = s.sortParallel(List.of(
+                t(1, "b", "", TaskState.TO_DO),
+                t(2, "c", "", TaskState.TO_DO),
+                t(3, "b", "", TaskState.TO_DO)));
+        assertEquals(List.of(1, 3, 2), second.stream().map(ITask::getId).toList());
+    }
+
+    /* -------------------- Composite -------------------- */
+
+    @Test
+    void compositeSort_matches_chained_comparator() {
+        String[] titles = {"b", "a", "ab", "B", "a b", "é", "e"};
+        TaskState[] states = TaskState.values();
+        List<ITask> input = new ArrayList<>();
+        Random r = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            input.add(t(i, titles[r.nextInt(titles.length)], "", states[r.nextInt(states.length)]));
+        }
+        java.text.Collator c = java.text.Collator.getInstance(Locale.getDefault());
+        Comparator<ITask> expected = Comparator.comparing(ITask::getState).reversed()
+                .thenComparing(ITask::getTitle, c)
+                .thenComparing(Comparator.comparingInt(ITask::getId).reversed());
+
+        CompositeSort s = new CompositeSort(
+                CompositeSort.Key.desc(CompositeSort.Field.STATE),
+                CompositeSort.Key.asc(CompositeSort.Field.TITLE),
+                CompositeSort.Key.desc(CompositeSort.Field.ID));
+        List<ITask> want = new ArrayList<>(input);
+        want.sort(expected);
+        assertEquals(want, s.sort(input));
+        assertEquals(want, s.sortParallel(input));
+
+        // keys packed once for the list; a row from outside it is packed on the fly
+        Comparator<ITask> prepared = s.comparatorFor(input);
+        List<ITask> viaPrepared = new ArrayList<>(input);
+        viaPrepared.sort(prepared);
+        assertEquals(want, viaPrepared);
+        ITask outsider = t(500, "a", "", states[states.length - 1]);
+        assertEquals(Integer.signum(s.comparator().compare(outsider, input.get(0))),
+                Integer.signum(prepared.compare(outsider, input.get(0))));
+        LazySortedWindow w = new LazySortedWindow(input, prepared);
+        assertEquals(want.subList(50, 60), w.window(50, 10));
+    }
+
+    @Test
+    void title_keys_survive_a_narrow_sort_and_are_capped_by_recency() {
+        List<ITask> wide = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) wide.add(t(i, "t" + i, "", TaskState.TO_DO));
+        CollationKeyCache keys = new CollationKeyCache(Locale.ROOT, 2_000);
+        CollationKey first = keys.keysOf(wide)[2_999];
+        assertEquals(3_000, keys.size());                     // a list above the cap stays whole
+
+        keys.keysOf(wide.subList(2_990, 3_000));               // narrow view: back down to the cap
+        assertEquals(2_000, keys.size());
+        assertSame(first, keys.keysOf(wide.subList(2_999, 3_000))[0]);
+    }
+
+    @Test
+    void title_comparator_for_a_list_orders_other_and_retitled_rows_too() {
+        List<ITask> rows = new ArrayList<>();
+        for (int i = 0; i < 50; i++) rows.add(t(i, "t" + (i * 7 % 50), "", TaskState.TO_DO));
+        SortByTitle s = new SortByTitle();
+        Comparator<ITask> prepared = s.comparatorFor(rows);
+        List<ITask> sorted = new ArrayList<>(rows);
+        sorted.sort(prepared);
+        assertEquals(s.sort(rows), sorted);
+
+        ITask outsider = t(99, "a", "", TaskState.TO_DO);
+        assertTrue(prepared.compare(outsider, rows.get(0)) < 0);
+        ITask renamed = t(0, "zz", "", TaskState.TO_DO);             // a later version of row 0
+        assertTrue(prepared.compare(renamed, rows.get(1)) > 0);
+    }
+
+    /* -------------------- Windows -------------------- */
+
+    @Test
+    void sortRange_and_lazy_window_match_full_sort() {
+        List<ITask> input = new ArrayList<>();
+        Random r = new Random(5);
+        for (int i = 0; i < 1_000; i++) {
+            input.add(t(i, "t" + r.nextInt(100), "", TaskState.values()[r.nextInt(3)]));
+        }
+        SortStrategy s = new SortByTitle();
+        List<ITask> full = s.sort(input);
+
+        assertEquals(full.subList(0, 30), s.sortRange(input, 0, 30));
+        assertEquals(full.subList(500, 540), s.sortRange(input, 500, 40));
+        assertEquals(full.subList(990, 1000), s.sortRange(input, 990, 50));
+
+        LazySortedWindow w = new LazySortedWindow(input, s.comparatorFor(input).thenComparingInt(ITask::getId));
+        assertEquals(full.subList(0, 30), w.window(0, 30));
+        assertEquals(full.subList(700, 760), w.window(700, 60));   // "scrolled" far down
+        assertEquals(full.subList(20, 90), w.window(20, 70));      // overlaps a refined window
+        assertEquals(full.get(999), w.get(999));
+        assertEquals(full, w.window(0, 1_000));
+    }
+
+    @Test
+    void lazy_window_keeps_its_refinement_across_adds_and_removes() {
+        Comparator<ITask> order = new SortByTitle().comparator().thenComparingInt(ITask::getId);
+        Random r = new Random(11);
+        List<ITask> rows = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) rows.add(t(i, "t" + r.nextInt(500), "", TaskState.TO_DO));
+        LazySortedWindow w = new LazySortedWindow(rows, order);
+        w.window(0, 100);
+        w.window(1_000, 100);
+        int refined = w.boundaries();
+
+        int nextId = 2_000;
+        for (int step = 0; step < 500; step++) {
+            if (r.nextBoolean()) {
+                ITask t = t(nextId++, "t" + r.nextInt(500), "", TaskState.TO_DO);
+                rows.add(t);
+                w.add(t);
+            } else {
+                ITask gone = rows.remove(r.nextInt(rows.size()));
+                assertTrue(w.removeById(gone.getId()));
+            }
+        }
+        assertFalse(w.removeById(-1));
+        // the refined windows survive (resetting would leave only the two ends)
+        assertTrue(w.boundaries() >= refined / 2, w.boundaries() + " of " + refined);
+
+        List<ITask> full = new ArrayList<>(rows);
+        full.sort(order);
+        assertEquals(full.subList(0, 100), w.window(0, 100));
+        assertEquals(full.subList(900, 1_100), w.window(900, 200));
+        assertEquals(full, w.window(0, rows.size()));
+    }
+
     /* -------------------- State -------------------- */
 
     @Test
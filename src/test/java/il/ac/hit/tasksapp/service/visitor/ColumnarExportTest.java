@@ -0,0 +1,82 @@
+package il.ac.hit.tasksapp.service.visitor;
+
+import il.ac.hit.tasksapp.dao.InMemoryTasksDAO;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+import il.ac.hit.tasksapp.model.record.TaskRecord;
+import il.ac.hit.tasksapp.model.state.TaskState;
+import il.ac.hit.tasksapp.model.visitor.ColumnarStreamVisitor;
+import il.ac.hit.tasksapp.model.visitor.ColumnarTaskReader;
+import il.ac.hit.tasksapp.model.visitor.CsvVisitor;
+import il.ac.hit.tasksapp.service.export.TaskExporter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static il.ac.hit.tasksapp.TestData.t;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarExportTest {
+
+    @Test
+    void round_trips_tasks_and_skips_row_groups_outside_the_id_range(@TempDir Path dir) throws Exception {
+        List<ITask> tasks = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            tasks.add(t(i * 3, "Task number " + i, i % 7 == 0 ? "" : "Notes for étape " + i,
+                    TaskState.values()[i % 3]));
+        }
+        Path file = dir.resolve("tasks.tskc");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            ColumnarStreamVisitor v = new ColumnarStreamVisitor(out, 100);
+            tasks.forEach(v::visit);
+            v.finish();
+        }
+
+        try (ColumnarTaskReader reader = new ColumnarTaskReader(file)) {
+            assertEquals(10, reader.rowGroups().size());
+            assertEquals(1_000, reader.rowCount());
+            assertEquals(new ColumnarTaskReader.RowGroup(reader.rowGroups().get(1).offset(),
+                    reader.rowGroups().get(1).length(), 100, 300, 597), reader.rowGroups().get(1));
+
+            List<ITask> all = new ArrayList<>();
+            assertEquals(1_000, reader.readAll(all::add));
+            assertEquals(tasks.stream().map(TaskRecord::from).toList(), all);
+
+            // ids 900..1200 live in groups 3 and 4 only
+            List<ITask> some = new ArrayList<>();
+            assertEquals(101, reader.read(900, 1_200, some::add));
+            assertEquals(900, some.get(0).getId());
+            assertEquals(1_200, some.get(100).getId());
+            assertEquals(12, reader.groupsRead());
+        }
+
+        CsvVisitor csv = new CsvVisitor();
+        tasks.forEach(csv::visit);
+        long csvBytes = csv.result().length();
+        assertTrue(Files.size(file) * 2 < csvBytes, "columnar " + Files.size(file) + " vs csv " + csvBytes);
+    }
+
+    @Test
+    void exporter_writes_an_empty_but_valid_file_and_rejects_non_columnar_files(@TempDir Path dir) throws Exception {
+        InMemoryTasksDAO dao = new InMemoryTasksDAO();
+        dao.addTask(t(1, "a", "", TaskState.TO_DO));
+        Path file = dir.resolve("none.tskc");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            assertEquals(0, new TaskExporter(dao).exportColumnar(TaskFilter.byState(TaskState.COMPLETED), out,
+                    () -> false, r -> { }));
+        }
+        try (ColumnarTaskReader reader = new ColumnarTaskReader(file)) {
+            assertEquals(0, reader.rowCount());
+            assertEquals(0, reader.readAll(x -> fail()));
+        }
+
+        Path csv = Files.writeString(dir.resolve("tasks.csv"), "id,title,description,state\n1,\"a\",\"\",TO_DO\n");
+        assertThrows(IOException.class, () -> new ColumnarTaskReader(csv));
+    }
+}
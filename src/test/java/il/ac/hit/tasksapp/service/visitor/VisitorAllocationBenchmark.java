@@ -0,0 +1,63 @@
+package il.ac.hit.tasksapp.service.visitor;
+
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.record.TaskRecord;
+import il.ac.hit.tasksapp.model.state.TaskState;
+import il.ac.hit.tasksapp.model.visitor.CsvStreamVisitor;
+import il.ac.hit.tasksapp.model.visitor.StatsVisitor;
+import il.ac.hit.tasksapp.model.visitor.TaskVisitor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static il.ac.hit.tasksapp.TestData.t;
+
+/**
+ * Manual benchmark (not a unit test): bytes allocated per visited task when every task is
+ * copied into a TaskRecord first (the old report loop) vs visited in place, for a stats
+ * report and a CSV export into a discarding Writer.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *          -Dexec.mainClass=il.ac.hit.tasksapp.service.visitor.VisitorAllocationBenchmark
+ */
+public final class VisitorAllocationBenchmark {
+    private VisitorAllocationBenchmark() {}
+
+    private static final int N = 1_000_000;
+    private static final TaskState[] STATES = TaskState.values();
+
+    public static void main(String[] args) {
+        List<ITask> tasks = new ArrayList<>(N);
+        for (int i = 0; i < N; i++) tasks.add(t(i, "title " + i, "description " + i, STATES[i % STATES.length]));
+
+        System.out.printf("%-8s %16s %16s%n", "report", "copy B/task", "in-place B/task");
+        report("stats", tasks, StatsVisitor::new);
+        report("csv", tasks, () -> new CsvStreamVisitor(Writer.nullWriter()));
+    }
+
+    private static void report(String name, List<ITask> tasks, java.util.function.Supplier<TaskVisitor> make) {
+        for (int i = 0; i < 5; i++) { run(tasks, make.get(), true); run(tasks, make.get(), false); } // warm-up
+        double copy = (double) allocated(() -> run(tasks, make.get(), true)) / tasks.size();
+        double inPlace = (double) allocated(() -> run(tasks, make.get(), false)) / tasks.size();
+        System.out.printf("%-8s %16.1f %16.1f%n", name, copy, inPlace);
+    }
+
+    private static void run(List<ITask> tasks, TaskVisitor v, boolean copy) {
+        for (ITask t : tasks) v.visit(copy ? new TaskRecord(t.getId(), t.getTitle(), t.getDescription(), t.getState()) : t);
+        if (v instanceof CsvStreamVisitor csv) {
+            try { csv.finish(); } catch (IOException e) { throw new IllegalStateException(e); }
+        }
+    }
+
+    /** Bytes allocated by this thread while running r (HotSpot's per-thread counter). */
+    private static long allocated(Runnable r) {
+        var mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().threadId();
+        long before = mx.getThreadAllocatedBytes(id);
+        r.run();
+        return mx.getThreadAllocatedBytes(id) - before;
+    }
+}
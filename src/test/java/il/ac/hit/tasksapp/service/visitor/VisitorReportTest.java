@@ -3,14 +3,29 @@ package il.ac.hit.tasksapp.service.visitor;
 import il.ac.hit.tasksapp.model.ITask;
 import il.ac.hit.tasksapp.model.record.TaskRecord;
 import il.ac.hit.tasksapp.model.state.TaskState;
+import il.ac.hit.tasksapp.model.visitor.CsvStreamVisitor;
 import il.ac.hit.tasksapp.model.visitor.CsvVisitor;
+import il.ac.hit.tasksapp.model.visitor.JsonStreamVisitor;
 import il.ac.hit.tasksapp.model.visitor.JsonVisitor;
 import il.ac.hit.tasksapp.model.visitor.StatsVisitor;
+import il.ac.hit.tasksapp.model.visitor.VisitDriver;
+import il.ac.hit.tasksapp.service.export.ExportSinks;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import static il.ac.hit.tasksapp.TestData.t;
 import static org.junit.jupiter.api.Assertions.*;
@@ -66,6 +81,60 @@ public class VisitorReportTest {
         assertTrue(containsCount(statsOut, "COMPLETED", 1), "Stats must show COMPLETED: 1");
     }
 
+    @Test
+    void streaming_exports_escape_and_survive_gzip(@TempDir Path dir) throws Exception {
+        TaskRecord tricky = new TaskRecord(7, "say \"hi\"", "back\\slash", TaskState.TO_DO);
+
+        StringWriter csv = new StringWriter();
+        CsvStreamVisitor cv = new CsvStreamVisitor(csv);
+        cv.visit(tricky);
+        cv.finish();
+        assertEquals("id,title,description,state\n7,\"say \"\"hi\"\"\",\"back\\slash\",TO_DO\n", csv.toString());
+
+        Path file = dir.resolve("tasks.json.gz");
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             Writer out = ExportSinks.open(ch, ExportSinks.isGzipName(file))) {
+            JsonStreamVisitor jv = new JsonStreamVisitor(out);
+            jv.visit(tricky);
+            jv.visit(new TaskRecord(8, "b", "", TaskState.COMPLETED));
+            jv.finish();
+        }
+        String json;
+        try (var in = new GZIPInputStream(Files.newInputStream(file))) {
+            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals("[{\"id\":7,\"title\":\"say \\\"hi\\\"\",\"description\":\"back\\\\slash\",\"state\":\"TO_DO\"},"
+                + "{\"id\":8,\"title\":\"b\",\"description\":\"\",\"state\":\"COMPLETED\"}]", json);
+    }
+
+    @Test
+    void parallel_visits_merge_to_the_sequential_result() {
+        List<ITask> tasks = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) tasks.add(t(i, "t" + i, "d" + i, TaskState.values()[i % 3]));
+
+        assertEquals(VisitDriver.visit(tasks, new CsvVisitor(), Integer.MAX_VALUE).result(),
+                VisitDriver.visit(tasks, new CsvVisitor(), 0).result());
+        assertEquals(VisitDriver.visit(tasks, new JsonVisitor(), Integer.MAX_VALUE).result(),
+                VisitDriver.visit(tasks, new JsonVisitor(), 0).result());
+        String stats = VisitDriver.visit(tasks, new StatsVisitor(), 0).result();
+        assertTrue(stats.contains("Total: 20000") && containsCount(stats, "TO_DO", 6667), stats);
+        assertEquals("[]", VisitDriver.visit(List.of(), new JsonVisitor(), 0).result());
+    }
+
+    @Test
+    void parallel_visits_read_one_copy_of_a_live_list() {
+        List<ITask> rows = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) rows.add(t(i, "t" + i, "", TaskState.TO_DO));
+        // a live view that may shrink under the chunks: only the up-front copy may read it
+        List<ITask> live = new AbstractList<>() {
+            @Override public ITask get(int index) { throw new AssertionError("indexed while visiting"); }
+            @Override public int size() { return rows.size(); }
+            @Override public <T> T[] toArray(T[] a) { return rows.toArray(a); }
+        };
+        assertEquals(VisitDriver.visit(rows, new CsvVisitor(), Integer.MAX_VALUE).result(),
+                VisitDriver.visit(live, new CsvVisitor(), 0).result());
+    }
+
     /* ---------- helpers ---------- */
 
     private static String extractOutput(Object visitor) {
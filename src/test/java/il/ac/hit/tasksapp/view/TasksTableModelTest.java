@@ -0,0 +1,53 @@
+package il.ac.hit.tasksapp.view;
+
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.state.TaskState;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import static il.ac.hit.tasksapp.TestData.t;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TasksTableModelTest {
+
+    @Test
+    void set_data_fires_only_the_changed_ranges() {
+        TasksTableModel m = new TasksTableModel();
+        m.setData(List.of(t(1, "a", "", TaskState.TO_DO), t(2, "b", "", TaskState.TO_DO),
+                t(3, "c", "", TaskState.TO_DO), t(4, "d", "", TaskState.TO_DO)));
+        List<String> events = new ArrayList<>();
+        m.addTableModelListener(e -> events.add(kind(e) + " " + e.getFirstRow() + ".." + e.getLastRow()));
+
+        // single-row edit: one update event
+        m.setData(List.of(t(1, "a", "", TaskState.TO_DO), t(2, "b", "", TaskState.COMPLETED),
+                t(3, "c", "", TaskState.TO_DO), t(4, "d", "", TaskState.TO_DO)));
+        assertEquals(List.of("UPDATE 1..1"), events);
+
+        // delete 2, insert 5 and 6 after 3, move 1 to the end
+        events.clear();
+        List<ITask> next = List.of(t(3, "c", "", TaskState.TO_DO), t(5, "e", "", TaskState.TO_DO),
+                t(6, "f", "", TaskState.TO_DO), t(4, "d", "", TaskState.TO_DO), t(1, "a", "", TaskState.TO_DO));
+        m.setData(next);
+        assertEquals(List.of("DELETE 0..1", "INSERT 1..2", "INSERT 4..4"), events);
+        assertEquals(ids(next), ids(m));
+    }
+
+    private static String kind(TableModelEvent e) {
+        return switch (e.getType()) {
+            case TableModelEvent.INSERT -> "INSERT";
+            case TableModelEvent.DELETE -> "DELETE";
+            default -> "UPDATE";
+        };
+    }
+
+    private static List<Integer> ids(List<ITask> xs) { return xs.stream().map(ITask::getId).toList(); }
+
+    private static List<Integer> ids(TasksTableModel m) {
+        List<Integer> out = new ArrayList<>();
+        for (int r = 0; r < m.getRowCount(); r++) out.add(m.getTaskAt(r).getId());
+        return out;
+    }
+}
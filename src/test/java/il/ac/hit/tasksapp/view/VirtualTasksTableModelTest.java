@@ -0,0 +1,109 @@
+package il.ac.hit.tasksapp.view;
+
+import il.ac.hit.tasksapp.dao.InMemoryTasksDAO;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+import il.ac.hit.tasksapp.model.state.TaskState;
+import il.ac.hit.tasksapp.vm.PageSource;
+import il.ac.hit.tasksapp.vm.TasksDelta;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static il.ac.hit.tasksapp.TestData.t;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualTasksTableModelTest {
+
+    @Test
+    void pages_load_on_demand_and_the_cache_stays_bounded() throws Exception {
+        InMemoryTasksDAO dao = new InMemoryTasksDAO();
+        int n = 20_000;
+        for (int i = 0; i < n; i++) dao.addTask(t(i, "t" + i, "", TaskState.TO_DO));
+
+        // direct loader: pages are fetched at once and delivered through the EDT queue
+        VirtualTasksTableModel m = new VirtualTasksTableModel(PageSource.of(dao), Runnable::run);
+        onEdt(m::reset);
+        onEdt(() -> assertEquals(n, m.getRowCount()));
+
+        AtomicReference<ITask> first = new AtomicReference<>();
+        onEdt(() -> first.set(m.getTaskAt(300)));
+        assertNull(first.get());                                   // not loaded yet
+        onEdt(() -> {
+            assertEquals(300, m.getTaskAt(300).getId());
+            assertNotNull(m.getTaskAt(VirtualTasksTableModel.PAGE_SIZE * 2)); // prefetched neighbour
+        });
+
+        // scroll through everything
+        for (int row = 0; row < n; row += VirtualTasksTableModel.PAGE_SIZE) {
+            int r = row;
+            onEdt(() -> m.getTaskAt(r));
+        }
+        onEdt(() -> {
+            assertEquals(n - 1, m.getTaskAt(n - 1).getId());
+            assertTrue(m.cachedPages() <= VirtualTasksTableModel.MAX_PAGES);
+        });
+    }
+
+    @Test
+    void single_writes_become_row_events_and_keep_the_loaded_rows() throws Exception {
+        InMemoryTasksDAO dao = new InMemoryTasksDAO();
+        for (int i = 1; i <= 10; i++) dao.addTask(t(i * 10, "t" + i, "", TaskState.TO_DO));
+        VirtualTasksTableModel m = new VirtualTasksTableModel(PageSource.of(dao), Runnable::run);
+        onEdt(m::reset);
+        onEdt(() -> m.getTaskAt(0));
+        onEdt(() -> {});                                                  // page 0 delivered
+
+        List<String> events = new ArrayList<>();
+        m.addTableModelListener(e -> events.add(e.getType() + " " + e.getFirstRow() + ".." + e.getLastRow()));
+
+        ITask renamed = t(20, "renamed", "", TaskState.TO_DO);
+        dao.updateTask(renamed);
+        onEdt(() -> m.apply(new TasksDelta(TasksDelta.Kind.MOVED, -1, -1, renamed, 20)));
+        onEdt(() -> assertEquals("renamed", m.getTaskAt(1).getTitle())); // patched in its cached page
+        ITask added = t(35, "new", "", TaskState.TO_DO);
+        dao.addTask(added);
+        onEdt(() -> m.apply(new TasksDelta(TasksDelta.Kind.INSERTED, -1, -1, added, 35)));
+        dao.deleteTask(90);
+        onEdt(() -> m.apply(new TasksDelta(TasksDelta.Kind.REMOVED, -1, -1, null, 90)));
+        onEdt(() -> {});                                                  // the last hand-off
+
+        assertEquals(List.of(
+                TableModelEvent.UPDATE + " 1..1",
+                TableModelEvent.INSERT + " 3..3",
+                TableModelEvent.DELETE + " 9..9"), events);
+        onEdt(() -> assertEquals(10, m.getRowCount()));
+    }
+
+    @Test
+    void the_row_count_tells_what_an_update_did() throws Exception {
+        InMemoryTasksDAO dao = new InMemoryTasksDAO();
+        for (int i = 1; i <= 6; i++) dao.addTask(t(i, "t" + i, "", i % 2 == 0 ? TaskState.COMPLETED : TaskState.TO_DO));
+        TaskFilter toDo = TaskFilter.byState(TaskState.TO_DO);
+        VirtualTasksTableModel m = new VirtualTasksTableModel(PageSource.of(dao, () -> toDo), Runnable::run);
+        onEdt(m::reset);
+        onEdt(() -> {});                                                  // the count delivered
+
+        List<String> events = new ArrayList<>();
+        m.addTableModelListener(e -> events.add(e.getType() + " " + e.getFirstRow() + ".." + e.getLastRow()));
+
+        ITask hidden = t(4, "still done", "", TaskState.COMPLETED);
+        dao.updateTask(hidden);
+        onEdt(() -> m.apply(new TasksDelta(TasksDelta.Kind.REMOVED, -1, -1, hidden, 4)));
+        ITask shown = t(2, "to do again", "", TaskState.TO_DO);
+        dao.updateTask(shown);
+        onEdt(() -> m.apply(new TasksDelta(TasksDelta.Kind.MOVED, -1, -1, shown, 2)));
+        onEdt(() -> {});
+
+        assertEquals(List.of(TableModelEvent.INSERT + " 1..1"), events);
+        onEdt(() -> assertEquals(4, m.getRowCount()));
+    }
+
+    private static void onEdt(Runnable r) throws Exception {
+        SwingUtilities.invokeAndWait(r);
+    }
+}
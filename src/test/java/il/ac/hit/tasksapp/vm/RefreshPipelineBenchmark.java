@@ -0,0 +1,75 @@
+package il.ac.hit.tasksapp.vm;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.InMemoryTasksDAO;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+import il.ac.hit.tasksapp.model.state.TaskState;
+import il.ac.hit.tasksapp.service.strategy.SortById;
+import il.ac.hit.tasksapp.service.strategy.SortByState;
+import il.ac.hit.tasksapp.service.strategy.SortByTitle;
+import il.ac.hit.tasksapp.service.strategy.SortStrategy;
+
+import java.util.Random;
+
+import static il.ac.hit.tasksapp.TestData.t;
+
+/**
+ * Manual benchmark (not a unit test): times TasksViewModel.refresh() sequential vs parallel
+ * for growing list sizes and prints, per strategy, the smallest size from which parallel keeps winning.
+ * Use the printed crossover for -Dtasksapp.parallel.threshold on the target machine.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *          -Dexec.mainClass=il.ac.hit.tasksapp.vm.RefreshPipelineBenchmark
+ */
+public final class RefreshPipelineBenchmark {
+    private RefreshPipelineBenchmark() {}
+
+    private static final int[] SIZES = {1_000, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000};
+    private static final TaskState[] STATES = TaskState.values();
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("cores=" + Runtime.getRuntime().availableProcessors());
+        SortStrategy[] strategies = {new SortById(), new SortByTitle(), new SortByState()};
+        TaskFilter filter = TaskFilter.byState(TaskState.COMPLETED).not().and(TaskFilter.byTitleContains("a"));
+
+        for (SortStrategy s : strategies) {
+            Integer crossover = null;
+            System.out.printf("%n%s%n%10s %12s %12s%n", s.getClass().getSimpleName(), "n", "seq ms", "par ms");
+            for (int n : SIZES) {
+                TasksViewModel vm = new TasksViewModel(seed(n));
+                vm.setSortStrategy(s);
+                vm.setFilter(filter);
+                double seq = time(vm, Integer.MAX_VALUE);
+                double par = time(vm, 1);
+                System.out.printf("%10d %12.2f %12.2f%n", n, seq, par);
+                if (par >= seq) crossover = null;
+                else if (crossover == null) crossover = n;
+            }
+            System.out.println("crossover ~ " + (crossover == null ? "none" : crossover));
+        }
+    }
+
+    private static ITasksDAO seed(int n) throws Exception {
+        ITasksDAO dao = new InMemoryTasksDAO();
+        Random r = new Random(42);
+        for (int i = 0; i < n; i++) {
+            String title = Long.toString(r.nextLong() & Long.MAX_VALUE, 36);
+            dao.addTask(t(i, title, "", STATES[r.nextInt(STATES.length)]));
+        }
+        return dao;
+    }
+
+    /** Median of a few timed refreshes after warm-up, in ms. */
+    private static double time(TasksViewModel vm, int threshold) throws Exception {
+        vm.setParallelThreshold(threshold);
+        for (int i = 0; i < 3; i++) vm.refresh();
+        double[] ms = new double[5];
+        for (int i = 0; i < ms.length; i++) {
+            long t0 = System.nanoTime();
+            vm.refresh();
+            ms[i] = (System.nanoTime() - t0) / 1e6;
+        }
+        java.util.Arrays.sort(ms);
+        return ms[ms.length / 2];
+    }
+}
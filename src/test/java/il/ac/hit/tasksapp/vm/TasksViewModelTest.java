@@ -0,0 +1,333 @@
+package il.ac.hit.tasksapp.vm;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.InMemoryTasksDAO;
+import il.ac.hit.tasksapp.model.ITask;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+import il.ac.hit.tasksapp.model.state.TaskState;
+import il.ac.hit.tasksapp.service.strategy.SortById;
+import il.ac.hit.tasksapp.service.strategy.SortByTitle;
+import il.ac.hit.tasksapp.service.strategy.SortStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static il.ac.hit.tasksapp.TestData.t;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TasksViewModelTest {
+
+    @Test
+    void single_writes_patch_the_view_with_deltas() throws Exception {
+        TasksViewModel vm = new TasksViewModel(new InMemoryTasksDAO());
+        vm.setSortStrategy(new SortByTitle());
+        vm.setFilter(TaskFilter.byState(TaskState.TO_DO));
+
+        List<String> deltas = new ArrayList<>();
+        vm.addListener(e -> {
+            if ("tasksDelta".equals(e.getPropertyName())) {
+                TasksDelta d = (TasksDelta) e.getNewValue();
+                deltas.add(d.kind() + " " + d.from() + "->" + d.to() + " #" + d.task().getId());
+            }
+        });
+
+        ITasksDAO dao = vm.getDaoForCommands();
+        dao.addTask(t(1, "Charlie", "", TaskState.TO_DO));
+        dao.addTask(t(2, "Alpha", "", TaskState.TO_DO));
+        dao.addTask(t(3, "Bravo", "", TaskState.COMPLETED));    // filtered out: no delta
+        dao.updateTask(t(2, "Delta", "", TaskState.TO_DO));      // re-sorted after Charlie
+        dao.updateTask(t(1, "Charlie", "", TaskState.COMPLETED)); // leaves the view
+        dao.deleteTask(2);
+
+        assertEquals(List.of(
+                "INSERTED -1->0 #1",
+                "INSERTED -1->0 #2",
+                "MOVED 0->1 #2",
+                "REMOVED 0->-1 #1",
+                "REMOVED 0->-1 #2"), deltas);
+        assertTrue(vm.getTasks().isEmpty());
+    }
+
+    @Test
+    void incremental_view_matches_full_refresh() throws Exception {
+        TasksViewModel vm = new TasksViewModel(new InMemoryTasksDAO());
+        vm.setSortStrategy(new SortByTitle());
+        ITasksDAO dao = vm.getDaoForCommands();
+        String[] titles = {"m", "b", "x", "b", "a", "q", "b", "z", "c", "m"};
+        for (int i = 0; i < titles.length; i++) dao.addTask(t(i, titles[i], "", TaskState.TO_DO));
+        dao.updateTask(t(4, "y", "", TaskState.TO_DO));
+        dao.deleteTask(7);
+
+        List<Integer> incremental = ids(vm.getTasks());
+        vm.refresh();
+        assertEquals(ids(vm.getTasks()), incremental);
+    }
+
+    @Test
+    void toggling_back_to_a_recent_view_is_a_cache_hit_until_a_write() throws Exception {
+        TasksViewModel vm = new TasksViewModel(new InMemoryTasksDAO());
+        ITasksDAO dao = vm.getDaoForCommands();
+        dao.addTask(t(1, "b", "", TaskState.TO_DO));
+        dao.addTask(t(2, "a", "", TaskState.COMPLETED));
+
+        vm.setFilter(TaskFilter.byState(TaskState.TO_DO));
+        vm.setFilter(TaskFilter.any());
+        long missesBefore = vm.resultCache().misses();
+        vm.setFilter(TaskFilter.byState(TaskState.TO_DO));   // structurally equal record tree
+        vm.setSortStrategy(new SortByTitle());
+        vm.setSortStrategy(new SortById());
+        assertEquals(missesBefore + 1, vm.resultCache().misses()); // only SortByTitle was new
+        assertEquals(List.of(1), ids(vm.getTasks()));
+
+        // a write makes the other cached views stale; the current one is kept up to date
+        dao.addTask(t(3, "c", "", TaskState.TO_DO));
+        vm.setFilter(TaskFilter.any());
+        assertEquals(List.of(1, 2, 3), ids(vm.getTasks()));
+        vm.setFilter(TaskFilter.byState(TaskState.TO_DO));
+        assertEquals(List.of(1, 3), ids(vm.getTasks()));
+    }
+
+    @Test
+    void filter_changes_do_not_copy_the_view_on_the_calling_thread() throws Exception {
+        TasksViewModel vm = new TasksViewModel(new InMemoryTasksDAO());
+        ITasksDAO dao = vm.getDaoForCommands();
+        for (int i = 0; i < 100; i++) dao.addTask(t(i, "t" + i, "", TaskState.TO_DO));  // view patched by writes
+
+        CountDownLatch release = new CountDownLatch(1);
+        vm.submit(release::await);                           // hold the worker
+        long puts = vm.resultCache().puts();
+        CompletableFuture<Void> typed = vm.setFilterAsync(TaskFilter.byTitleContains("t1"));
+        assertEquals(puts, vm.resultCache().puts());         // nothing stored (or copied) here
+        release.countDown();
+        typed.join();
+
+        long missesBefore = vm.resultCache().misses();
+        vm.setFilter(TaskFilter.any());                      // the patched view was kept by the worker
+        assertEquals(missesBefore, vm.resultCache().misses());
+        assertEquals(100, vm.getTaskCount());
+    }
+
+    @Test
+    void windowed_mode_serves_sorted_windows() throws Exception {
+        TasksViewModel vm = new TasksViewModel(new InMemoryTasksDAO());
+        ITasksDAO dao = vm.getDaoForCommands();
+        for (int i = 0; i < 100; i++) dao.addTask(t(i, "t" + (99 - i), "", TaskState.TO_DO));
+        vm.setSortStrategy(new SortByTitle());
+        List<Integer> expected = ids(vm.getTasksWindow(10, 5));
+
+        vm.setWindowed(true);
+        assertEquals(expected, ids(vm.getTasksWindow(10, 5)));
+        dao.deleteTask(vm.getTasksWindow(0, 1).get(0).getId());
+        assertEquals(99, vm.getTasks().size());
+        vm.setWindowed(false);
+        assertEquals(99, vm.getTasks().size());
+    }
+
+    @Test
+    void paged_mode_keeps_no_rows_and_reports_writes_without_positions() throws Exception {
+        TasksViewModel vm = new TasksViewModel(new InMemoryTasksDAO());
+        ITasksDAO dao = vm.getDaoForCommands();
+        for (int i = 1; i <= 5; i++) dao.addTask(t(i, "t" + i, "", i % 2 == 0 ? TaskState.COMPLETED : TaskState.TO_DO));
+        vm.setFilter(TaskFilter.byState(TaskState.TO_DO));
+
+        vm.setPaged(true);
+        assertTrue(vm.isPaged());
+        assertTrue(vm.getTasks().isEmpty());
+        assertEquals(3, vm.getTaskCount());
+        PageSource source = PageSource.of(dao, vm::getFilter);
+        assertEquals(List.of(3, 5), ids(source.page(1, 10)));
+        assertEquals(1, source.rank(3));
+
+        List<String> deltas = new ArrayList<>();
+        vm.addListener(e -> {
+            if ("tasksDelta".equals(e.getPropertyName())) {
+                TasksDelta d = (TasksDelta) e.getNewValue();
+                assertTrue(d.positionless());
+                deltas.add(d.kind() + " #" + d.id());
+            }
+        });
+        dao.addTask(t(6, "t6", "", TaskState.TO_DO));
+        dao.addTask(t(7, "t7", "", TaskState.COMPLETED));        // filtered out: no delta
+        dao.updateTask(t(1, "renamed", "", TaskState.TO_DO));
+        dao.updateTask(t(2, "t2", "", TaskState.TO_DO));         // enters the view
+        dao.updateTask(t(3, "t3", "", TaskState.COMPLETED));     // leaves it
+        dao.updateTask(t(4, "t4!", "", TaskState.COMPLETED));    // was never visible
+        dao.deleteTask(5);
+
+        // no previous version is kept: visible now is MOVED, otherwise REMOVED; the table
+        // tells an insert or a no-op from the count (see VirtualTasksTableModel)
+        assertEquals(List.of("INSERTED #6", "MOVED #1", "MOVED #2", "REMOVED #3", "REMOVED #4", "REMOVED #5"), deltas);
+        vm.submit(() -> {}).join(); // counts are queried again on the worker
+        assertEquals(3, vm.getTaskCount());
+        assertEquals(3, vm.getStats().count(TaskState.COMPLETED));
+        assertEquals(List.of(1, 2, 6), ids(source.page(0, 10)));
+
+        vm.setPaged(false);
+        assertEquals(List.of(1, 2, 6), ids(vm.getTasks()));
+    }
+
+    @Test
+    void paged_mode_handles_ids_near_the_int_limit() throws Exception {
+        InMemoryTasksDAO backing = new InMemoryTasksDAO();
+        int big = Integer.MAX_VALUE - 1;
+        backing.addTask(t(1, "a", "", TaskState.TO_DO));
+        backing.addTask(t(big, "b", "", TaskState.TO_DO));
+        TasksViewModel vm = new TasksViewModel(backing, true);
+        assertTrue(vm.isPaged());
+        assertEquals(2, vm.getTaskCount());
+
+        ITasksDAO dao = vm.getDaoForCommands();
+        dao.addTask(t(big - 1, "c", "", TaskState.COMPLETED));
+        dao.deleteTask(1);
+        vm.submit(() -> {}).join();
+        assertEquals(2, vm.getTaskCount());
+        assertEquals(1, vm.getStats().count(TaskState.COMPLETED));
+        PageSource source = PageSource.of(dao, vm::getFilter);
+        assertEquals(List.of(big - 1, big), ids(source.page(0, 10)));
+        assertEquals(1, source.rank(big));
+    }
+
+    @Test
+    void refresh_bursts_coalesce_and_superseded_refreshes_are_dropped() throws Exception {
+        TasksViewModel vm = new TasksViewModel(new InMemoryTasksDAO());
+        vm.getDaoForCommands().addTask(t(1, "a", "", TaskState.TO_DO));
+        vm.getDaoForCommands().addTask(t(2, "b", "", TaskState.COMPLETED));
+
+        // keep the worker busy so the requests pile up behind it
+        CountDownLatch release = new CountDownLatch(1);
+        vm.submit(release::await);
+        CompletableFuture<Void> first = vm.requestRefresh();
+        for (int i = 0; i < 4; i++) assertSame(first, vm.requestRefresh());
+        assertEquals(4, vm.scheduler().coalesced());
+        release.countDown();
+        first.join();
+
+        // a refresh still sorting when a new filter arrives drops its result
+        CountDownLatch sorting = new CountDownLatch(1);
+        CountDownLatch go = new CountDownLatch(1);
+        SortStrategy slow = new SortStrategy() {
+            @Override public List<ITask> sort(List<ITask> input) {
+                sorting.countDown();
+                try { go.await(); } catch (InterruptedException e) { throw new IllegalStateException(e); }
+                return new SortById().sort(input);
+            }
+            @Override public Comparator<ITask> comparator() { return Comparator.comparingInt(ITask::getId); }
+        };
+        CompletableFuture<Void> slowDone = vm.setSortStrategyAsync(slow);
+        sorting.await();
+        CompletableFuture<Void> filtered = vm.setFilterAsync(TaskFilter.byState(TaskState.TO_DO));
+        go.countDown();
+        filtered.join();
+        slowDone.join();
+        assertEquals(1, vm.scheduler().superseded());
+        assertEquals(List.of(1), ids(vm.getTasks()));
+    }
+
+    @Test
+    void narrowing_filter_refines_the_previous_result() throws Exception {
+        TasksViewModel vm = new TasksViewModel(new InMemoryTasksDAO());
+        ITasksDAO dao = vm.getDaoForCommands();
+        String[] titles = {"abc", "abd", "xab", "abcd", "b"};
+        for (int i = 0; i < titles.length; i++) dao.addTask(t(i, titles[i], "", TaskState.TO_DO));
+        vm.setSortStrategy(new SortByTitle());
+
+        vm.setFilter(TaskFilter.byTitleContains("ab"));
+        long before = vm.refinements();
+        vm.setFilter(TaskFilter.byTitleContains("abc"));   // narrower: no rescan
+        assertEquals(before + 1, vm.refinements());
+        assertEquals(List.of(0, 3), ids(vm.getTasks()));
+
+        dao.addTask(t(9, "abcz", "", TaskState.TO_DO));     // new data, patched into the view
+        vm.setFilter(TaskFilter.byTitleContains("abcz"));  // so the patched view is refined
+        assertEquals(before + 2, vm.refinements());
+        assertEquals(List.of(9), ids(vm.getTasks()));
+
+        dao.addTask(t(10, "abczz", "", TaskState.TO_DO));
+        vm.setFilter(TaskFilter.byTitleContains("ab"));    // wider: rescans and still sees every row
+        assertEquals(before + 2, vm.refinements());
+        assertEquals(List.of(0, 3, 9, 10, 1, 2), ids(vm.getTasks()));
+    }
+
+    @Test
+    void bulk_insert_rebuilds_the_view_and_index_once_on_the_worker() throws Exception {
+        TasksViewModel vm = new TasksViewModel(new InMemoryTasksDAO());
+        vm.setFilter(TaskFilter.byState(TaskState.TO_DO));
+        ITask[] many = new ITask[200];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = t(i, "item " + i, "", i % 2 == 0 ? TaskState.TO_DO : TaskState.COMPLETED);
+        }
+        List<String> events = new ArrayList<>();
+        vm.addListener(e -> events.add(e.getPropertyName()));
+
+        CountDownLatch release = new CountDownLatch(1);
+        vm.submit(release::await);
+        vm.getDaoForCommands().addTasks(many);
+        assertTrue(events.isEmpty());                       // the writer only queued the rebuild
+        release.countDown();
+        vm.submit(() -> {}).join();
+        assertEquals(List.of("tasks"), events);
+        assertEquals(100, vm.getTaskCount());
+        assertEquals(List.of(7), ids(vm.searchRanked("item 7", 1)));
+    }
+
+    @Test
+    void text_matches_nested_in_boolean_filters_agree_with_the_plain_filter() throws Exception {
+        InMemoryTasksDAO backing = new InMemoryTasksDAO();
+        String[] words = {"alpha", "beta", "gamma"};
+        for (int i = 0; i < 60; i++) {
+            backing.addTask(t(i, words[i % 3] + " " + words[i % 2], "note " + i, TaskState.values()[i % 3]));
+        }
+        TasksViewModel vm = new TasksViewModel(backing);
+        TaskFilter alpha = TaskFilter.byText("alpha");
+        List<TaskFilter> filters = List.of(
+                alpha.and(TaskFilter.byState(TaskState.TO_DO)),
+                TaskFilter.byText("beta").or(TaskFilter.byIdBetween(50, 59)),
+                alpha.not(),
+                TaskFilter.byState(TaskState.COMPLETED).and(TaskFilter.byText("gamma").or(alpha).not()));
+        for (TaskFilter f : filters) {
+            vm.setFilter(f);
+            List<Integer> expected = new ArrayList<>();
+            for (ITask t : backing.getTasks()) if (f.test(t)) expected.add(t.getId());
+            assertEquals(expected, ids(vm.getTasks()), f.describe());
+        }
+    }
+
+    private static List<Integer> ids(List<ITask> xs) { return xs.stream().map(ITask::getId).toList(); }
+
+    @Test
+    void state_counters_follow_writes_and_filters_without_traversal() throws Exception {
+        InMemoryTasksDAO backing = new InMemoryTasksDAO();
+        backing.addTask(t(1, "a", "", TaskState.TO_DO));
+        backing.addTask(t(2, "b", "", TaskState.COMPLETED));
+        TasksViewModel vm = new TasksViewModel(backing);
+        vm.setFilter(TaskFilter.byState(TaskState.TO_DO));
+        List<String> events = new ArrayList<>();
+        vm.addListener(e -> events.add(e.getPropertyName()));
+
+        ITasksDAO dao = vm.getDaoForCommands();
+        dao.addTask(t(3, "c", "", TaskState.COMPLETED));           // filtered out: only "stats"
+        dao.updateTask(t(1, "a", "", TaskState.IN_PROGRESS));      // leaves the view
+        dao.addTask(t(4, "d", "", TaskState.TO_DO));
+        dao.deleteTask(2);
+
+        StateStats st = vm.getStats();
+        assertEquals(3, st.total());
+        assertEquals(1, st.count(TaskState.TO_DO));
+        assertEquals(1, st.count(TaskState.IN_PROGRESS));
+        assertEquals(1, st.count(TaskState.COMPLETED));
+        assertEquals(1, st.visibleTotal());
+        assertEquals(1, st.visibleCount(TaskState.TO_DO));
+        assertEquals(List.of("stats", "tasksDelta", "tasksDelta", "stats"), events);
+
+        vm.setWindowed(true);
+        vm.setFilter(TaskFilter.any());
+        dao.updateTask(t(4, "d", "", TaskState.COMPLETED));
+        assertEquals(3, vm.getStats().visibleTotal());
+        assertEquals(2, vm.getStats().visibleCount(TaskState.COMPLETED));
+        assertTrue(vm.buildStateStats().contains("COMPLETED: 2"));
+    }
+}
@@ -0,0 +1,80 @@
+package il.ac.hit.tasksapp.vm;
+
+import il.ac.hit.tasksapp.dao.ITasksDAO;
+import il.ac.hit.tasksapp.dao.InMemoryTasksDAO;
+import il.ac.hit.tasksapp.model.filter.TaskFilter;
+import il.ac.hit.tasksapp.model.state.TaskState;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static il.ac.hit.tasksapp.TestData.t;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ViewUpdateBatcherTest {
+
+    @Test
+    void one_update_per_tick_with_the_latest_list_and_filter() throws Exception {
+        TasksViewModel vm = new TasksViewModel(new InMemoryTasksDAO());
+        List<Runnable> ticks = new ArrayList<>();
+        List<ViewUpdateBatcher.Update> updates = new ArrayList<>();
+        ViewUpdateBatcher batcher = new ViewUpdateBatcher(vm, updates::add, ticks::add);
+
+        ITasksDAO dao = vm.getDaoForCommands();
+        dao.addTask(t(1, "a", "", TaskState.TO_DO));             // delta, dropped by the refresh below
+        vm.setFilter(TaskFilter.byState(TaskState.TO_DO));      // filter + tasks
+        vm.refresh();                                           // tasks again
+        dao.addTask(t(2, "b", "", TaskState.TO_DO));             // delta after the last list
+        vm.setFilter(TaskFilter.any());                         // filter + tasks
+        dao.addTask(t(3, "c", "", TaskState.COMPLETED));         // delta
+
+        assertEquals(1, ticks.size());
+        ticks.forEach(Runnable::run);
+        assertEquals(1, updates.size());
+        ViewUpdateBatcher.Update u = updates.get(0);
+        assertEquals("ANY", u.filter());
+        assertEquals(List.of(1, 2), u.tasks().stream().map(x -> x.getId()).toList());
+        assertEquals(1, u.deltas().size());
+        assertEquals(3, u.deltas().get(0).task().getId());
+        assertEquals(8, batcher.received());
+        assertEquals(7, batcher.coalesced());
+
+        dao.deleteTask(3);                                      // the next tick starts fresh
+        assertEquals(2, ticks.size());
+        ticks.get(1).run();
+        assertNull(updates.get(1).tasks());
+        assertNull(updates.get(1).filter());
+        assertEquals(TasksDelta.Kind.REMOVED, updates.get(1).deltas().get(0).kind());
+    }
+
+    @Test
+    void writes_racing_with_ticks_do_not_deadlock() throws Exception {
+        TasksViewModel vm = new TasksViewModel(new InMemoryTasksDAO());
+        ExecutorService tick = Executors.newSingleThreadExecutor();
+        AtomicInteger lastTotal = new AtomicInteger();
+        new ViewUpdateBatcher(vm, u -> lastTotal.set(u.stats().total()), tick);
+
+        ITasksDAO dao = vm.getDaoForCommands();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 2_000; i++) dao.addTask(t(i, "t" + i, "", TaskState.values()[i % 3]));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+        writer.join(10_000);
+        assertNull(ManagementFactory.getThreadMXBean().findDeadlockedThreads());
+        assertFalse(writer.isAlive(), "writer stuck");
+
+        tick.submit(() -> { }).get(10, TimeUnit.SECONDS); // drain the last flush
+        tick.shutdown();
+        assertEquals(2_000, lastTotal.get());
+    }
+}